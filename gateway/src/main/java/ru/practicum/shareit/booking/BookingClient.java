@@ -7,14 +7,18 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -26,26 +30,59 @@ public class BookingClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(BaseClient::streamingRequestFactory)
                         .build()
         );
     }
 
-    @Cacheable(cacheNames = "bookingsList", key = "#userId + '_' + #state + '_' + #from + '_' + #size")
+    @Cacheable(
+            cacheNames = "bookingsList",
+            key = "#userId + '_' + #state + '_' + #from + '_' + #size + '_' + #isOwner + '_' + #archived + '_' + #cursor"
+    )
     public ResponseEntity<Object> getBookings(
             long userId,
             BookingState state,
             Integer from,
             Integer size,
-            boolean isOwner
+            boolean isOwner,
+            boolean archived,
+            String cursor
     ) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "owner", isOwner,
+                    "archived", archived,
+                    "cursor", cursor
+            );
+            return get(
+                    "?state={state}&size={size}&owner={owner}&archived={archived}&cursor={cursor}",
+                    userId,
+                    parameters
+            );
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size,
-                "owner", isOwner
+                "owner", isOwner,
+                "archived", archived
         );
-        return get("?state={state}&from={from}&size={size}&owner={owner}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&owner={owner}&archived={archived}", userId, parameters);
+    }
+
+    public void export(long userId, boolean isOwner, HttpServletResponse response) {
+        stream("/export?owner={owner}", userId, Map.of("owner", isOwner), response);
+    }
+
+    @CacheEvict(value = "bookingsList", allEntries = true)
+    public void importAll(long userId, HttpServletRequest request, HttpServletResponse response) {
+        upload("/bulk", userId, request, response);
+    }
+
+    public void subscribe(long userId, HttpServletResponse response) {
+        stream("/stream", userId, null, MediaType.TEXT_EVENT_STREAM, response);
     }
 
     @Caching(
@@ -57,6 +94,14 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    @Caching(evict = {
+            @CacheEvict(value = "bookings", allEntries = true),
+            @CacheEvict(value = "bookingsList", allEntries = true)
+    })
+    public ResponseEntity<Object> approveBookings(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+
     @CachePut(cacheNames = "bookings")
     public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
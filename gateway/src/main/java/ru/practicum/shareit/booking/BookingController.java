@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -11,9 +13,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.exception.UnsupportedStatusException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
 @Slf4j
 @Validated
 @Controller
@@ -27,12 +34,14 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "archived", defaultValue = "false") boolean archived,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new UnsupportedStatusException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size, false);
+        return bookingClient.getBookings(userId, state, from, size, false, archived, cursor);
     }
 
     @GetMapping("/owner")
@@ -40,12 +49,43 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "archived", defaultValue = "false") boolean archived,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new UnsupportedStatusException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size, true);
+        return bookingClient.getBookings(userId, state, from, size, true, archived, cursor);
+    }
+
+    @GetMapping("/export")
+    public void export(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "owner", defaultValue = "false") boolean isOwner,
+            HttpServletResponse response
+    ) {
+        log.info("Export bookings, userId={}, owner={}", userId, isOwner);
+        bookingClient.export(userId, isOwner, response);
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        log.info("Bulk import of bookings, userId={}", userId);
+        bookingClient.importAll(userId, request, response);
+    }
+
+    @GetMapping("/stream")
+    public void stream(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            HttpServletResponse response
+    ) {
+        log.info("Stream booking events, userId={}", userId);
+        bookingClient.subscribe(userId, response);
     }
 
     @PostMapping
@@ -68,6 +108,15 @@ public class BookingController {
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveBookings(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecisionDto> decisions
+    ) {
+        log.info("UserId={}, batch of {} booking decisions", userId, decisions.size());
+        return bookingClient.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(
             @RequestHeader("X-Sharer-User-Id") long userId,
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookingDecisionDto {
+    @Positive
+    private long bookingId;
+    private boolean approved;
+}
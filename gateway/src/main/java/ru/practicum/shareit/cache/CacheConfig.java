@@ -0,0 +1,44 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        ResponseSizeWeigher weigher = new ResponseSizeWeigher();
+        List<Cache> caches = new ArrayList<>();
+        for (Map.Entry<String, CacheProperties.Spec> entry : properties.getCaches().entrySet()) {
+            CacheProperties.Spec spec = entry.getValue();
+            long maxWeight = (spec.getMaxWeight() != null ? spec.getMaxWeight() : properties.getMaxWeight()).toBytes();
+            Duration expireAfterWrite = spec.getExpireAfterWrite() != null
+                    ? spec.getExpireAfterWrite()
+                    : properties.getExpireAfterWrite();
+
+            caches.add(new CaffeineCache(entry.getKey(), Caffeine.newBuilder()
+                    .maximumWeight(maxWeight)
+                    .weigher(weigher)
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build()));
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache")
+public class CacheProperties {
+    private DataSize maxWeight = DataSize.ofMegabytes(8);
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private DataSize maxWeight;
+        private Duration expireAfterWrite;
+    }
+}
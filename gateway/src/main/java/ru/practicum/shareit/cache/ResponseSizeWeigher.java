@@ -0,0 +1,55 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.cache.support.NullValue;
+import org.springframework.http.HttpEntity;
+
+import java.util.Collection;
+import java.util.Map;
+
+public class ResponseSizeWeigher implements Weigher<Object, Object> {
+    private static final int NULL_SIZE = 4;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long size = key.toString().length() + sizeOf(value);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(Object value) {
+        if (value instanceof HttpEntity) {
+            HttpEntity<?> entity = (HttpEntity<?>) value;
+            long contentLength = entity.getHeaders().getContentLength();
+            return contentLength >= 0 ? contentLength : sizeOfBody(entity.getBody());
+        }
+        return sizeOfBody(value);
+    }
+
+    private static long sizeOfBody(Object body) {
+        if (body == null || body instanceof NullValue) return 0;
+        if (body instanceof byte[]) return ((byte[]) body).length;
+        return estimateJson(body);
+    }
+
+    private static long estimateJson(Object value) {
+        if (value == null) return NULL_SIZE;
+        if (value instanceof CharSequence) return ((CharSequence) value).length() + 2;
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = 2 + Math.max(map.size() - 1, 0);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 3 + estimateJson(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = 2 + Math.max(collection.size() - 1, 0);
+            for (Object element : collection) {
+                size += estimateJson(element);
+            }
+            return size;
+        }
+        return value.toString().length();
+    }
+}
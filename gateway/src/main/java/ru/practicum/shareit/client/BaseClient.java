@@ -1,15 +1,26 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
@@ -79,6 +90,74 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected void stream(String path, Long userId, @Nullable Map<String, Object> parameters, HttpServletResponse response) {
+        stream(path, userId, parameters, MediaType.APPLICATION_JSON, response);
+    }
+
+    protected void stream(String path, Long userId, @Nullable Map<String, Object> parameters, MediaType accept, HttpServletResponse response) {
+        execute(HttpMethod.GET, path, request -> {
+            request.getHeaders().putAll(defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(accept));
+        }, parameters, response);
+    }
+
+    protected void upload(String path, Long userId, HttpServletRequest request, HttpServletResponse response) {
+        execute(HttpMethod.POST, path, serverRequest -> {
+            HttpHeaders headers = serverRequest.getHeaders();
+            headers.putAll(defaultHeaders(userId));
+            if (request.getContentType() != null) {
+                headers.setContentType(MediaType.parseMediaType(request.getContentType()));
+            }
+            if (request.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, request.getHeader(HttpHeaders.CONTENT_ENCODING));
+            }
+            StreamUtils.copy(request.getInputStream(), serverRequest.getBody());
+        }, null, response);
+    }
+
+    protected static ClientHttpRequestFactory streamingRequestFactory() {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+        factory.setBufferRequestBody(false);
+        return factory;
+    }
+
+    private void execute(
+            HttpMethod method,
+            String path,
+            RequestCallback callback,
+            @Nullable Map<String, Object> parameters,
+            HttpServletResponse response
+    ) {
+        try {
+            rest.execute(path, method, callback, serverResponse -> {
+                response.setStatus(serverResponse.getRawStatusCode());
+                MediaType contentType = serverResponse.getHeaders().getContentType();
+                if (contentType != null) {
+                    response.setContentType(contentType.toString());
+                }
+                copyFlushing(serverResponse.getBody(), response.getOutputStream());
+                return null;
+            }, parameters == null ? Map.of() : parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try {
+                response.getOutputStream().write(e.getResponseBodyAsByteArray());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private static void copyFlushing(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
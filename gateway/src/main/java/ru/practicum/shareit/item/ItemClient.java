@@ -7,13 +7,15 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -25,7 +27,7 @@ public class ItemClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(BaseClient::streamingRequestFactory)
                         .build()
         );
     }
@@ -63,16 +65,69 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    @Cacheable(cacheNames = "itemsList", key = "#userId + '_' + #from + '_' + #size")
-    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size) {
+    @Cacheable(cacheNames = "items", key = "#userId + '_' + #itemId + '_comments_' + #size + '_' + #cursor")
+    public ResponseEntity<Object> getComments(long userId, long itemId, Integer size, String cursor) {
+        Map<String, Object> parameters = Map.of("size", size, "cursor", cursor);
+        return get("/" + itemId + "/comments?size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from == null ? "" : from,
+                "to", to == null ? "" : to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    @Cacheable(cacheNames = "itemsList", key = "#userId + '_' + #from + '_' + #size + '_' + #cursor")
+    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of("size", size, "cursor", cursor);
+            return get("?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of("from", from, "size", size);
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    @Cacheable(cacheNames = "itemsList", key = "#userId + '_' + #text + '_' + #from + '_' + #size")
-    public ResponseEntity<Object> search(long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("text", text, "from", from, "size", size);
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getStats(long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of("from", from, "size", size);
+        return get("/stats?from={from}&size={size}", userId, parameters);
+    }
+
+    public void export(long userId, HttpServletResponse response) {
+        stream("/export", userId, null, response);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(value = "itemsList", allEntries = true),
+            @CacheEvict(value = "allRequests", allEntries = true),
+            @CacheEvict(value = "ownerRequest", allEntries = true),
+            @CacheEvict(value = "request", allEntries = true)})
+    public void importAll(long userId, HttpServletRequest request, HttpServletResponse response) {
+        upload("/bulk", userId, request, response);
+    }
+
+    @Cacheable(
+            cacheNames = "itemsList",
+            key = "#userId + '_' + #text + '_' + #from + '_' + #size",
+            condition = "#start == null && #end == null"
+    )
+    public ResponseEntity<Object> search(
+            long userId,
+            String text,
+            Integer from,
+            Integer size,
+            LocalDateTime start,
+            LocalDateTime end
+    ) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "start", start == null ? "" : start,
+                "end", end == null ? "" : end
+        );
+        return get("/search?text={text}&from={from}&size={size}&start={start}&end={end}", userId, parameters);
     }
 }
 
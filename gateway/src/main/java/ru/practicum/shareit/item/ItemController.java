@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -20,6 +21,10 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.BadDataItemException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
+
 @Slf4j
 @Validated
 @Controller
@@ -71,14 +76,68 @@ public class ItemController {
         return itemClient.addComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable(value = "itemId") long itemId,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", defaultValue = "") String cursor
+    ) {
+        log.info("***User ID: {} get Comments for Item ID: {}", userId, itemId);
+        return itemClient.getComments(userId, itemId, size, cursor);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable(value = "itemId") long itemId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to
+    ) {
+        log.info("***User ID: {} get availability for Item ID: {} from {} to {}", userId, itemId, from, to);
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAll(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         log.info("***User ID: {} get all Items", userId);
-        return itemClient.getAll(userId, from, size);
+        return itemClient.getAll(userId, from, size, cursor);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getStats(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+    ) {
+        log.info("***User ID: {} get Item stats", userId);
+        return itemClient.getStats(userId, from, size);
+    }
+
+    @GetMapping("/export")
+    public void export(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            HttpServletResponse response
+    ) {
+        log.info("***User ID: {} export Items", userId);
+        itemClient.export(userId, response);
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        log.info("***User ID: {} bulk import of Items", userId);
+        itemClient.importAll(userId, request, response);
     }
 
     @GetMapping("/search")
@@ -86,9 +145,13 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @RequestParam(value = "text") String text,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime start,
+            @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime end
     ) {
-        log.info("***User ID: {} search Item with text: {}", userId, text);
-        return itemClient.search(userId, text, from, size);
+        log.info("***User ID: {} search Item with text: {}, start: {}, end: {}", userId, text, start, end);
+        return itemClient.search(userId, text, from, size, start, end);
     }
 }
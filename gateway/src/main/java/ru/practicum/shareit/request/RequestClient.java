@@ -49,8 +49,12 @@ public class RequestClient extends BaseClient {
         return get("", userId);
     }
 
-    @Cacheable(cacheNames = "allRequests", key = "#userId + '_' + #from + '_' + #size")
-    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size) {
+    @Cacheable(cacheNames = "allRequests", key = "#userId + '_' + #from + '_' + #size + '_' + #cursor")
+    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of("size", size, "cursor", cursor);
+            return get("/all?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of("from", from, "size", size);
         return get("/all?from={from}&size={size}", userId, parameters);
     }
@@ -54,9 +54,10 @@ public class RequestController {
     public ResponseEntity<Object> getAll(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         log.info("***User ID: {} get all requests", userId);
-        return requestClient.getAll(userId, from, size);
+        return requestClient.getAll(userId, from, size, cursor);
     }
 }
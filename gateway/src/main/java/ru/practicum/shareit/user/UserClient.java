@@ -6,8 +6,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,6 +16,10 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
@@ -25,17 +29,19 @@ public class UserClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(BaseClient::streamingRequestFactory)
                         .build()
         );
     }
 
     @CachePut(cacheNames = "users")
+    @CacheEvict(cacheNames = "usersList", allEntries = true)
     public ResponseEntity<Object> create(UserDto userDto) {
         return post("", userDto);
     }
 
     @CachePut(cacheNames = "users")
+    @CacheEvict(cacheNames = "usersList", allEntries = true)
     public ResponseEntity<Object> update(@PathVariable long id, @RequestBody @Valid UserDto userDto) {
         return patch("/" + id, userDto);
     }
@@ -45,12 +51,28 @@ public class UserClient extends BaseClient {
         return get("/" + id);
     }
 
-    @Cacheable(cacheNames = "users")
-    public ResponseEntity<Object> getAll() {
-        return get("");
+    @Cacheable(cacheNames = "usersList", key = "#from + '_' + #size + '_' + #cursor")
+    public ResponseEntity<Object> getAll(Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of("size", size, "cursor", cursor);
+            return get("?size={size}&cursor={cursor}", null, parameters);
+        }
+        Map<String, Object> parameters = Map.of("from", from, "size", size);
+        return get("?from={from}&size={size}", null, parameters);
+    }
+
+    public void export(HttpServletResponse response) {
+        stream("/export", null, null, response);
+    }
+
+    @CacheEvict(cacheNames = "usersList", allEntries = true)
+    public void importAll(HttpServletRequest request, HttpServletResponse response) {
+        upload("/bulk", null, request, response);
     }
 
-    @CacheEvict(cacheNames = "users", key = "#id")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "users", key = "#id"),
+            @CacheEvict(cacheNames = "usersList", allEntries = true)})
     public void delete(@PathVariable long id) {
         delete("/" + id);
     }
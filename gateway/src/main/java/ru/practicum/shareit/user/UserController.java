@@ -1,6 +1,8 @@
 package ru.practicum.shareit.user;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -13,12 +15,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserWithoutEmailException;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 @RequiredArgsConstructor
 @RequestMapping("/users")
@@ -54,9 +58,26 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers(HttpServletRequest request) {
-        log.info("***Query all users from an IP: {}", request.getLocalAddr());
-        return userClient.getAll();
+    public ResponseEntity<Object> getUsers(
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletRequest request
+    ) {
+        log.info("***Query users page from: {}, size: {} from an IP: {}", from, size, request.getLocalAddr());
+        return userClient.getAll(from, size, cursor);
+    }
+
+    @GetMapping("/export")
+    public void export(HttpServletRequest request, HttpServletResponse response) {
+        log.info("***Export all users from an IP: {}", request.getLocalAddr());
+        userClient.export(response);
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(HttpServletRequest request, HttpServletResponse response) {
+        log.info("***Bulk import of users from an IP: {}", request.getLocalAddr());
+        userClient.importAll(request, response);
     }
 
     @DeleteMapping(path = "/{id}")
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheConfigTest {
+    private CacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheProperties();
+        properties.setMaxWeight(DataSize.ofMegabytes(8));
+        properties.setExpireAfterWrite(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void cacheManager_whenSpecOmitsBounds_thenDefaultsApplied() {
+        properties.setCaches(Map.of("users", new CacheProperties.Spec()));
+
+        Cache<Object, Object> users = nativeCache(cacheManager(), "users");
+
+        assertEquals(DataSize.ofMegabytes(8).toBytes(), users.policy().eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(5).toSeconds(),
+                users.policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cacheManager_whenSpecSetsBounds_thenSpecOverridesDefaults() {
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaxWeight(DataSize.ofMegabytes(16));
+        spec.setExpireAfterWrite(Duration.ofMinutes(1));
+        properties.setCaches(Map.of("bookings", spec));
+
+        Cache<Object, Object> bookings = nativeCache(cacheManager(), "bookings");
+
+        assertEquals(DataSize.ofMegabytes(16).toBytes(), bookings.policy().eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(1).toSeconds(),
+                bookings.policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cacheManager_whenEntriesExceedMaxWeight_thenEvictedWithinBound() {
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaxWeight(DataSize.ofKilobytes(1));
+        properties.setCaches(Map.of("items", spec));
+        CacheManager cacheManager = cacheManager();
+        Cache<Object, Object> items = nativeCache(cacheManager, "items");
+
+        for (int i = 0; i < 10; i++) {
+            cacheManager.getCache("items").put(i, response(200));
+        }
+        items.cleanUp();
+
+        long weightedSize = items.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weightedSize <= DataSize.ofKilobytes(1).toBytes());
+        assertTrue(items.estimatedSize() < 10);
+    }
+
+    private CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = (SimpleCacheManager) new CacheConfig().cacheManager(properties);
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private static ResponseEntity<Object> response(long contentLength) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(contentLength);
+        return new ResponseEntity<>(Map.of(), headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseSizeWeigherTest {
+    private final ResponseSizeWeigher weigher = new ResponseSizeWeigher();
+
+    @Test
+    void weigh_whenContentLengthKnown_thenContentLengthUsed() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(1_000);
+        ResponseEntity<Object> response = new ResponseEntity<>(Map.of("id", 1), headers, HttpStatus.OK);
+
+        assertEquals("42".length() + 1_000, weigher.weigh("42", response));
+    }
+
+    @Test
+    void weigh_whenJsonBodyWithoutContentLength_thenEstimateMatchesSerializedSize() throws Exception {
+        Map<String, Object> comment = new LinkedHashMap<>();
+        comment.put("id", 7);
+        comment.put("text", "Good drill");
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", 1);
+        item.put("name", "Drill");
+        item.put("available", true);
+        item.put("rating", 4.5);
+        item.put("lastBooking", null);
+        item.put("comments", List.of(comment, Map.of()));
+        item.put("tags", List.of());
+        ResponseEntity<Object> response = ResponseEntity.ok(item);
+
+        int serialized = new ObjectMapper().writeValueAsBytes(item).length;
+
+        assertEquals("1".length() + serialized, weigher.weigh("1", response));
+    }
+
+    @Test
+    void weigh_whenErrorBodyBytes_thenByteLengthUsed() {
+        byte[] body = "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8);
+        ResponseEntity<Object> response = ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+
+        assertEquals("1".length() + body.length, weigher.weigh("1", response));
+    }
+
+    @Test
+    void weigh_whenNullValue_thenOnlyKeyWeighed() {
+        assertEquals("1_10_null".length(), weigher.weigh("1_10_null", NullValue.INSTANCE));
+    }
+}
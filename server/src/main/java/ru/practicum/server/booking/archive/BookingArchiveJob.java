@@ -0,0 +1,52 @@
+package ru.practicum.server.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class BookingArchiveJob {
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public BookingArchiveJob(
+            BookingRepository bookingRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${shareit.booking.archive.horizon:P180D}") Duration horizon,
+            @Value("${shareit.booking.archive.batch-size:1000}") int batchSize
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 0 3 * * *}")
+    public void run() {
+        archive(LocalDateTime.now().minus(horizon));
+    }
+
+    public long archive(LocalDateTime before) {
+        long archived = 0;
+        int moved;
+        do {
+            Integer batch = transactionTemplate.execute(
+                    status -> bookingRepository.archiveEndedBefore(before, batchSize)
+            );
+            moved = batch == null ? 0 : batch;
+            archived += moved;
+        } while (moved == batchSize);
+
+        log.info("Archived {} bookings ended before {}", archived, before);
+        return archived;
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.server.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,13 +15,24 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.enums.BookingState;
 import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.bulk.BulkImporter;
+import ru.practicum.server.export.NdjsonWriter;
+import ru.practicum.server.pagination.Cursor;
+import ru.practicum.server.pagination.OffsetPageRequest;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,45 +40,107 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final BulkImporter bulkImporter;
 
     @PostMapping
     public ResponseEntity<BookingDto> create(
-            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            UserPrincipal principal,
             @RequestBody @Valid BookingDto bookingDto
     ) {
-        return ResponseEntity.ok(bookingService.save(userId, bookingDto));
+        return ResponseEntity.ok(bookingService.save(principal, bookingDto));
     }
 
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingDto> get(
-            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            UserPrincipal principal,
             @PathVariable(name = "bookingId") Integer bookingId
     ) {
-        return ResponseEntity.ok(bookingService.get(userId, bookingId));
+        return ResponseEntity.ok(bookingService.get(principal, bookingId));
     }
 
     @GetMapping
     public ResponseEntity<List<BookingDto>> getAll(
-            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            UserPrincipal principal,
             @RequestParam(name = "state", required = false, defaultValue = "ALL") String state,
             @RequestParam(name = "from", defaultValue = "0") @Min(0) int from,
             @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size,
-            @RequestParam(name = "owner", defaultValue = "false") boolean isOwner
+            @RequestParam(name = "owner", defaultValue = "false") boolean isOwner,
+            @RequestParam(name = "archived", defaultValue = "false") boolean archived,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
+        if (cursor != null) {
+            Cursor after = cursor.isEmpty() ? null : Cursor.decode(cursor, 2);
+            return Cursor.toResponse(
+                    bookingService.getAll(
+                            principal,
+                            BookingState.valueOf(state),
+                            isOwner,
+                            archived,
+                            after == null ? null : after.getDateTime(0),
+                            after == null ? 0 : after.getLong(1),
+                            size
+                    ),
+                    size,
+                    booking -> Cursor.encode(booking.getStart(), booking.getId())
+            );
+        }
+
         return ResponseEntity.ok(bookingService.getAll(
-                userId,
+                principal,
                 BookingState.valueOf(state),
                 isOwner,
-                PageRequest.of(from, size, Sort.by("start").descending())
+                archived,
+                OffsetPageRequest.of(from, size, Sort.by("start", "id").descending())
         ));
     }
 
+    @GetMapping("/export")
+    public void export(
+            UserPrincipal principal,
+            @RequestParam(name = "owner", defaultValue = "false") boolean isOwner,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        bookingService.export(principal, isOwner, new NdjsonWriter<>(objectMapper, response.getOutputStream()));
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(
+            UserPrincipal principal,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        bulkImporter.run(
+                request.getInputStream(),
+                contentEncoding,
+                BookingDto.class,
+                rows -> bookingService.importAll(principal, rows),
+                new NdjsonWriter<>(objectMapper, response.getOutputStream())
+        );
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(UserPrincipal principal) {
+        return bookingService.subscribe(principal);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<BookingDto> approveBooking(
-            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            UserPrincipal principal,
             @PathVariable(name = "bookingId") Integer bookingId,
             @RequestParam(name = "approved", defaultValue = "false") boolean approved
     ) {
-        return ResponseEntity.ok(bookingService.approveBooking(userId, bookingId, approved));
+        return ResponseEntity.ok(bookingService.approveBooking(principal, bookingId, approved));
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BookingDecisionResultDto>> approveBookings(
+            UserPrincipal principal,
+            @RequestBody List<BookingDecisionDto> decisions
+    ) {
+        return ResponseEntity.ok(bookingService.approveBookings(principal, decisions));
     }
 }
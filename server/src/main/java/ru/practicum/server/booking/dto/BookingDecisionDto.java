@@ -0,0 +1,9 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.Data;
+
+@Data
+public class BookingDecisionDto {
+    private long bookingId;
+    private boolean approved;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.Data;
+import ru.practicum.server.booking.enums.BookingDecisionOutcome;
+
+@Data
+public class BookingDecisionResultDto {
+    private long bookingId;
+    private BookingDecisionOutcome outcome;
+    private BookingDto booking;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.server.booking.enums.BookingEventType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEventDto {
+    private BookingEventType type;
+    private BookingDto booking;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.server.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingIntervalView {
+    long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
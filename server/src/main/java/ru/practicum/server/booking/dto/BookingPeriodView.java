@@ -0,0 +1,11 @@
+package ru.practicum.server.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingPeriodView {
+    long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
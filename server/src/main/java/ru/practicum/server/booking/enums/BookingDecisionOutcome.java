@@ -0,0 +1,9 @@
+package ru.practicum.server.booking.enums;
+
+public enum BookingDecisionOutcome {
+    UPDATED,
+    NOT_FOUND,
+    NOT_OWNER,
+    NOT_AVAILABLE,
+    ALREADY_DECIDED
+}
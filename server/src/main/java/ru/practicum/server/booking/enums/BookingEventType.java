@@ -0,0 +1,7 @@
+package ru.practicum.server.booking.enums;
+
+public enum BookingEventType {
+    CREATED,
+    APPROVED,
+    REJECTED
+}
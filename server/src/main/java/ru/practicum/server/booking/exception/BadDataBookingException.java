@@ -0,0 +1,7 @@
+package ru.practicum.server.booking.exception;
+
+public class BadDataBookingException extends RuntimeException {
+    public BadDataBookingException(String message) {
+        super(message);
+    }
+}
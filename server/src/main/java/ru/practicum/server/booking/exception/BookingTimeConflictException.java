@@ -0,0 +1,7 @@
+package ru.practicum.server.booking.exception;
+
+public class BookingTimeConflictException extends RuntimeException {
+    public BookingTimeConflictException(String message) {
+        super(message);
+    }
+}
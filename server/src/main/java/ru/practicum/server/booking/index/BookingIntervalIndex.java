@@ -0,0 +1,260 @@
+package ru.practicum.server.booking.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.booking.dto.BookingIntervalView;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.exception.BookingTimeConflictException;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int LOAD_LOCK_STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, IntervalTree> trees;
+    private final Object[] loadLocks = new Object[LOAD_LOCK_STRIPES];
+
+    public BookingIntervalIndex(
+            BookingRepository bookingRepository,
+            @Value("${shareit.booking.index.max-items:10000}") int maxItems
+    ) {
+        this.bookingRepository = bookingRepository;
+        Arrays.setAll(loadLocks, i -> new Object());
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, IntervalTree> eldest) {
+                if (size() <= maxItems) return false;
+
+                Iterator<IntervalTree> iterator = values().iterator();
+                while (iterator.hasNext()) {
+                    if (!iterator.next().isRetained()) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    public Booking reserve(long itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> saver) {
+        IntervalTree tree = load(itemId, true);
+        try {
+            synchronized (tree) {
+                tree.removeEndedBefore(LocalDateTime.now());
+                if (tree.overlaps(start, end)) {
+                    throw new BookingTimeConflictException(
+                            "Item with ID:" + itemId + " is already booked for this time"
+                    );
+                }
+
+                Booking booking = saver.get();
+                tree.insert(booking.getId(), start, end);
+                afterCompletion(committed -> {
+                    if (!committed) remove(tree, booking.getId(), start);
+                    tree.release();
+                });
+
+                return booking;
+            }
+        } catch (RuntimeException e) {
+            tree.release();
+            throw e;
+        }
+    }
+
+    public boolean[] reserveAll(List<Booking> bookings, Consumer<List<Booking>> saver) {
+        Map<Long, IntervalTree> locked = new TreeMap<>();
+        try {
+            for (Booking booking : bookings) {
+                locked.computeIfAbsent(booking.getItem().getId(), itemId -> load(itemId, true));
+            }
+
+            return reserveAll(bookings, saver, locked);
+        } catch (RuntimeException e) {
+            locked.values().forEach(IntervalTree::release);
+            throw e;
+        }
+    }
+
+    private boolean[] reserveAll(
+            List<Booking> bookings,
+            Consumer<List<Booking>> saver,
+            Map<Long, IntervalTree> locked
+    ) {
+        boolean[] reserved = new boolean[bookings.size()];
+        withLocks(locked.values().iterator(), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            locked.values().forEach(tree -> tree.removeEndedBefore(now));
+
+            List<Booking> accepted = new ArrayList<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                IntervalTree tree = locked.get(booking.getItem().getId());
+                if (tree.overlaps(booking.getStart(), booking.getEnd())) continue;
+
+                tree.insert(-(i + 1), booking.getStart(), booking.getEnd());
+                reserved[i] = true;
+                accepted.add(booking);
+            }
+
+            try {
+                saver.accept(accepted);
+            } finally {
+                for (int i = 0; i < bookings.size(); i++) {
+                    Booking booking = bookings.get(i);
+                    if (reserved[i]) locked.get(booking.getItem().getId()).remove(-(i + 1), booking.getStart());
+                }
+            }
+
+            for (Booking booking : accepted) {
+                locked.get(booking.getItem().getId()).insert(booking.getId(), booking.getStart(), booking.getEnd());
+            }
+            afterCompletion(committed -> {
+                if (!committed) {
+                    for (Booking booking : accepted) {
+                        remove(locked.get(booking.getItem().getId()), booking.getId(), booking.getStart());
+                    }
+                }
+                locked.values().forEach(IntervalTree::release);
+            });
+        });
+
+        return reserved;
+    }
+
+    public void update(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        boolean active = ACTIVE_STATUSES.contains(booking.getStatus());
+        afterCompletion(committed -> {
+            if (!committed) return;
+
+            synchronized (loadLock(itemId)) {
+                IntervalTree tree = get(itemId, false);
+                if (tree == null) return;
+
+                synchronized (tree) {
+                    if (active) {
+                        tree.insert(bookingId, start, end);
+                    } else {
+                        tree.remove(bookingId, start);
+                    }
+                }
+            }
+        });
+    }
+
+    public List<AvailabilityIntervalDto> getOccupied(long itemId, LocalDateTime from, LocalDateTime to) {
+        IntervalTree tree = load(itemId, false);
+        List<AvailabilityIntervalDto> occupied = new ArrayList<>();
+        synchronized (tree) {
+            tree.removeEndedBefore(LocalDateTime.now());
+            tree.forEachOverlapping(from, to, (start, end) -> {
+                LocalDateTime clippedStart = start.isBefore(from) ? from : start;
+                LocalDateTime clippedEnd = end.isAfter(to) ? to : end;
+                AvailabilityIntervalDto last = occupied.isEmpty() ? null : occupied.get(occupied.size() - 1);
+
+                if (last == null || clippedStart.isAfter(last.getEnd())) {
+                    occupied.add(new AvailabilityIntervalDto(clippedStart, clippedEnd));
+                } else if (clippedEnd.isAfter(last.getEnd())) {
+                    last.setEnd(clippedEnd);
+                }
+            });
+        }
+
+        return occupied;
+    }
+
+    private static void remove(IntervalTree tree, long bookingId, LocalDateTime start) {
+        synchronized (tree) {
+            tree.remove(bookingId, start);
+        }
+    }
+
+    private static void withLocks(Iterator<IntervalTree> trees, Runnable action) {
+        if (!trees.hasNext()) {
+            action.run();
+            return;
+        }
+
+        synchronized (trees.next()) {
+            withLocks(trees, action);
+        }
+    }
+
+    private IntervalTree get(long itemId, boolean retain) {
+        synchronized (trees) {
+            IntervalTree tree = trees.get(itemId);
+            if (tree != null && retain) tree.retain();
+            return tree;
+        }
+    }
+
+    private IntervalTree load(long itemId, boolean retain) {
+        IntervalTree tree = get(itemId, retain);
+        if (tree != null) return tree;
+
+        synchronized (loadLock(itemId)) {
+            tree = get(itemId, retain);
+            if (tree != null) return tree;
+
+            List<BookingIntervalView> views = bookingRepository.findIntervals(
+                    itemId,
+                    ACTIVE_STATUSES,
+                    LocalDateTime.now()
+            );
+            IntervalTree loaded = new IntervalTree();
+            for (BookingIntervalView view : views) {
+                loaded.insert(view.getId(), view.getStart(), view.getEnd());
+            }
+
+            synchronized (trees) {
+                if (retain) loaded.retain();
+                trees.put(itemId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private Object loadLock(long itemId) {
+        return loadLocks[Math.floorMod(itemId, LOAD_LOCK_STRIPES)];
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.onCompletion(true);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.onCompletion(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private interface CompletionCallback {
+        void onCompletion(boolean committed);
+    }
+}
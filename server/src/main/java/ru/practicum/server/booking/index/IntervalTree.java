@@ -0,0 +1,195 @@
+package ru.practicum.server.booking.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+class IntervalTree {
+    private final AtomicInteger holders = new AtomicInteger();
+    private Node root;
+    private int size;
+
+    void insert(long id, LocalDateTime start, LocalDateTime end) {
+        remove(id, start);
+        root = insert(root, new Node(id, start, end));
+        size++;
+    }
+
+    void remove(long id, LocalDateTime start) {
+        if (contains(root, id, start)) {
+            root = remove(root, id, start);
+            size--;
+        }
+    }
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) return true;
+
+            if (node.left != null && start.isBefore(node.left.maxEnd)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return false;
+    }
+
+    void forEachOverlapping(LocalDateTime start, LocalDateTime end, BiConsumer<LocalDateTime, LocalDateTime> consumer) {
+        forEachOverlapping(root, start, end, consumer);
+    }
+
+    void removeEndedBefore(LocalDateTime time) {
+        if (root == null || root.minEnd.isAfter(time)) return;
+
+        List<Node> ended = new ArrayList<>();
+        collectEndedBefore(root, time, ended);
+        for (Node node : ended) {
+            remove(node.id, node.start);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void retain() {
+        holders.incrementAndGet();
+    }
+
+    void release() {
+        holders.decrementAndGet();
+    }
+
+    boolean isRetained() {
+        return holders.get() > 0;
+    }
+
+    private static void collectEndedBefore(Node node, LocalDateTime time, List<Node> ended) {
+        if (node == null || node.minEnd.isAfter(time)) return;
+
+        collectEndedBefore(node.left, time, ended);
+        if (!node.end.isAfter(time)) ended.add(node);
+        collectEndedBefore(node.right, time, ended);
+    }
+
+    private static void forEachOverlapping(
+            Node node,
+            LocalDateTime start,
+            LocalDateTime end,
+            BiConsumer<LocalDateTime, LocalDateTime> consumer
+    ) {
+        if (node == null || !start.isBefore(node.maxEnd)) return;
+
+        forEachOverlapping(node.left, start, end, consumer);
+        if (!node.start.isBefore(end)) return;
+
+        if (start.isBefore(node.end)) consumer.accept(node.start, node.end);
+        forEachOverlapping(node.right, start, end, consumer);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) return inserted;
+
+        if (compare(inserted.start, inserted.id, node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+
+        return update(node);
+    }
+
+    private static Node remove(Node node, long id, LocalDateTime start) {
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            node = rotateRight(node);
+            node.right = remove(node.right, id, start);
+        } else {
+            node = rotateLeft(node);
+            node.left = remove(node.left, id, start);
+        }
+
+        return update(node);
+    }
+
+    private static boolean contains(Node node, long id, LocalDateTime start) {
+        while (node != null) {
+            int cmp = compare(start, id, node);
+            if (cmp == 0) return true;
+
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        return false;
+    }
+
+    private static int compare(LocalDateTime start, long id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        LocalDateTime minEnd = node.end;
+        if (node.left != null) {
+            if (node.left.maxEnd.isAfter(maxEnd)) maxEnd = node.left.maxEnd;
+            if (node.left.minEnd.isBefore(minEnd)) minEnd = node.left.minEnd;
+        }
+        if (node.right != null) {
+            if (node.right.maxEnd.isAfter(maxEnd)) maxEnd = node.right.maxEnd;
+            if (node.right.minEnd.isBefore(minEnd)) minEnd = node.right.minEnd;
+        }
+        node.maxEnd = maxEnd;
+        node.minEnd = minEnd;
+        return node;
+    }
+
+    private static class Node {
+        private final long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private LocalDateTime maxEnd;
+        private LocalDateTime minEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.minEnd = end;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -22,7 +23,12 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @EqualsAndHashCode(exclude = {"start", "end"})
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "bookings_booker_id_start_date_idx", columnList = "booker_id, start_date, id"),
+        @Index(name = "bookings_item_id_start_date_idx", columnList = "item_id, start_date, id"),
+        @Index(name = "bookings_item_id_start_date_end_date_idx", columnList = "item_id, start_date, end_date"),
+        @Index(name = "bookings_archived_end_date_idx", columnList = "archived, end_date")
+})
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,4 +45,5 @@ public class Booking {
     private User booker;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    private boolean archived;
 }
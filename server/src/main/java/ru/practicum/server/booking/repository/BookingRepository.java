@@ -1,82 +1,116 @@
 package ru.practicum.server.booking.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.server.booking.dto.BookingIntervalView;
+import ru.practicum.server.booking.dto.BookingPeriodView;
 import ru.practicum.server.booking.enums.BookingStatus;
 import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.item.dto.BookingItemView;
+import ru.practicum.server.item.dto.ItemStatusCountView;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 @EnableJpaRepositories
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findAllByBookerId(long bookerId, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerId(long ownerId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String LAST_NEXT_APPROVED_BOOKINGS = "SELECT ranked.id, ranked.item_id, ranked.start_date, " +
+            "ranked.end_date, ranked.booker_id " +
+            "FROM (SELECT b.id, b.item_id, b.start_date, b.end_date, b.booker_id, " +
+            "ROW_NUMBER() OVER (" +
+            "PARTITION BY b.item_id, CASE WHEN b.start_date > :now THEN 1 ELSE 0 END " +
+            "ORDER BY CASE WHEN b.start_date > :now THEN b.start_date END, b.end_date DESC" +
+            ") AS rn " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id " +
+            "WHERE b.item_id IN (:itemIds) AND i.owner_id = :ownerId " +
+            "AND b.status = 'APPROVED' AND b.start_date <> :now) ranked " +
+            "WHERE ranked.rn = 1";
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(
-            long ownerId,
-            LocalDateTime presentForStart,
-            LocalDateTime presentForEnd,
-            Pageable pageable
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status " +
+            "WHERE b.id = :id AND b.status = :expected " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId AND i.available = true)")
+    int compareAndSetStatus(
+            @Param("id") long id,
+            @Param("ownerId") long ownerId,
+            @Param("expected") BookingStatus expected,
+            @Param("status") BookingStatus status
     );
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(
-            long ownerId,
-            LocalDateTime presentForStart,
-            LocalDateTime presentForEnd,
-            Pageable pageable
-    );
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE bookings SET archived = true WHERE id IN (" +
+            "SELECT id FROM bookings WHERE archived = false AND end_date < :before LIMIT :limit)",
+            nativeQuery = true)
+    int archiveEndedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
 
-    List<Booking> findAllByBookerIdAndStartAfter(
-            long bookerId,
-            LocalDateTime presentForStart,
-            Pageable pageable
-    );
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id = :id")
+    Optional<Booking> findWithItemAndBookerById(@Param("id") long id);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfter(
-            long ownerId,
-            LocalDateTime presentForStart,
-            Pageable pageable
-    );
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id IN :ids")
+    List<Booking> findAllWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
 
-    List<Booking> findAllByBookerIdAndEndBefore(
-            long bookerId,
-            LocalDateTime presentForEnd,
-            Pageable pageable
+    @Query("SELECT b.id AS id, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status IN :statuses AND b.end > :now AND b.archived = false")
+    List<BookingIntervalView> findIntervals(
+            @Param("itemId") long itemId,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("now") LocalDateTime now
     );
 
-    List<Booking> findAllByItemOwnerIdAndEndBefore(
-            long ownerId,
-            LocalDateTime presentForEnd,
-            Pageable pageable
-    );
+    @Query("SELECT b.item.id AS itemId, b.status AS status, COUNT(b) AS total FROM Booking b " +
+            "WHERE b.item.id IN :itemIds GROUP BY b.item.id, b.status")
+    List<ItemStatusCountView> countByItemIdInGroupByStatus(@Param("itemIds") Collection<Long> itemIds);
 
-    List<Booking> findAllByItemOwnerIdAndStatus(
-            long ownerId,
-            BookingStatus status,
-            Pageable pageable
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status")
+    List<BookingPeriodView> findPeriodsByItemIdInAndStatus(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("status") BookingStatus status
     );
 
-    List<Booking> findAllByBookerIdAndStatus(
-            long bookerId,
-            BookingStatus status,
-            Pageable pageable
-    );
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = :bookerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByBookerId(@Param("bookerId") long bookerId);
 
-    List<Booking> findAllByBookerIdAndEndBeforeAndStatus(
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByItemOwnerId(@Param("ownerId") long ownerId);
+
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
             long bookerId,
-            LocalDateTime present,
-            BookingStatus status
+            long itemId,
+            BookingStatus status,
+            LocalDateTime present
     );
 
-    List<Booking> findBookingByItemIdAndItemOwnerIdAndStatus(
-            long itemId,
-            long ownerId,
-            BookingStatus status
+    @Query(value = "SELECT lb.id AS id, lb.item_id AS itemId, lb.start_date AS startDate, " +
+            "lb.end_date AS endDate, lb.booker_id AS bookerId " +
+            "FROM (" + LAST_NEXT_APPROVED_BOOKINGS + ") lb",
+            nativeQuery = true)
+    List<BookingItemView> findLastAndNextApprovedBookings(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("ownerId") long ownerId,
+            @Param("now") LocalDateTime now
     );
 }
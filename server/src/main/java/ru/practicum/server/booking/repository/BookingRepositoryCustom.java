@@ -0,0 +1,17 @@
+package ru.practicum.server.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    Slice<Booking> findSlice(Specification<Booking> specification, Pageable pageable);
+
+    int[] compareAndSetStatuses(long ownerId, List<BookingDecisionDto> decisions);
+
+    void insertAll(List<Booking> bookings);
+}
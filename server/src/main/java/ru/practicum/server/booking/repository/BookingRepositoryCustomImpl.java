@@ -0,0 +1,100 @@
+package ru.practicum.server.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.bulk.JdbcBatch;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final String COMPARE_AND_SET_STATUS = "UPDATE bookings SET status = ? " +
+            "WHERE id = ? AND status = ? AND item_id IN (SELECT id FROM items WHERE owner_id = ? AND available)";
+    private static final String INSERT = "INSERT INTO bookings " +
+            "(start_date, end_date, item_id, booker_id, status, archived) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<Booking> findSlice(Specification<Booking> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> root = query.from(Booking.class);
+        root.fetch("item", JoinType.INNER);
+        root.fetch("booker", JoinType.INNER);
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) query.where(predicate);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        List<Booking> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) content = content.subList(0, pageable.getPageSize());
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public int[] compareAndSetStatuses(long ownerId, List<BookingDecisionDto> decisions) {
+        entityManager.flush();
+
+        int[] updated = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(COMPARE_AND_SET_STATUS)) {
+                for (BookingDecisionDto decision : decisions) {
+                    BookingStatus status = decision.isApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                    statement.setString(1, status.name());
+                    statement.setLong(2, decision.getBookingId());
+                    statement.setString(3, BookingStatus.WAITING.name());
+                    statement.setLong(4, ownerId);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        entityManager.clear();
+
+        return updated;
+    }
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) return;
+
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, JdbcBatch.ID_COLUMN)) {
+                for (Booking booking : bookings) {
+                    statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                    statement.setLong(3, booking.getItem().getId());
+                    statement.setLong(4, booking.getBooker().getId());
+                    statement.setString(5, booking.getStatus().name());
+                    statement.setBoolean(6, booking.isArchived());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                JdbcBatch.readGeneratedIds(statement, bookings, Booking::setId);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.server.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.server.booking.enums.BookingState;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+public class BookingSpecifications {
+    public static Specification<Booking> of(
+            long userId,
+            boolean isOwner,
+            BookingState state,
+            LocalDateTime now,
+            boolean archived
+    ) {
+        return byRole(userId, isOwner).and(byState(state, now)).and(isArchived(archived));
+    }
+
+    public static Specification<Booking> isArchived(boolean archived) {
+        return (root, query, builder) -> builder.equal(root.get("archived"), archived);
+    }
+
+    public static Specification<Booking> byRole(long userId, boolean isOwner) {
+        if (isOwner) {
+            return (root, query, builder) -> builder.equal(root.get("item").get("owner").get("id"), userId);
+        }
+        return (root, query, builder) -> builder.equal(root.get("booker").get("id"), userId);
+    }
+
+    public static Specification<Booking> byState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case FUTURE:
+                return (root, query, builder) -> builder.greaterThan(root.get("start"), now);
+            case PAST:
+                return (root, query, builder) -> builder.lessThan(root.get("end"), now);
+            case CURRENT:
+                return (root, query, builder) -> builder.and(
+                        builder.lessThan(root.get("start"), now),
+                        builder.greaterThan(root.get("end"), now)
+                );
+            case WAITING:
+                return (root, query, builder) -> builder.equal(root.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return (root, query, builder) -> builder.equal(root.get("status"), BookingStatus.REJECTED);
+            default:
+                return Specification.where(null);
+        }
+    }
+
+    public static Specification<Booking> startsBefore(LocalDateTime start, long id) {
+        return (root, query, builder) -> builder.or(
+                builder.lessThan(root.get("start"), start),
+                builder.and(
+                        builder.equal(root.get("start"), start),
+                        builder.lessThan(root.get("id"), id)
+                )
+        );
+    }
+}
@@ -1,17 +1,43 @@
 package ru.practicum.server.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.enums.BookingState;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
-    BookingDto save(long userId, BookingDto bookingDto);
+    BookingDto save(UserPrincipal principal, BookingDto bookingDto);
 
-    BookingDto get(long userId, long bookingId);
+    BookingDto get(UserPrincipal principal, long bookingId);
 
-    List<BookingDto> getAll(long userId, BookingState state, boolean isOwner, Pageable pageable);
+    List<BookingDto> getAll(UserPrincipal principal, BookingState state, boolean isOwner, boolean archived, Pageable pageable);
 
-    BookingDto approveBooking(long userId, long bookingId, boolean approved);
+    List<BookingDto> getAll(
+            UserPrincipal principal,
+            BookingState state,
+            boolean isOwner,
+            boolean archived,
+            LocalDateTime afterStart,
+            long afterId,
+            int size
+    );
+
+    BookingDto approveBooking(UserPrincipal principal, long bookingId, boolean approved);
+
+    List<BookingDecisionResultDto> approveBookings(UserPrincipal principal, List<BookingDecisionDto> decisions);
+
+    void export(UserPrincipal principal, boolean isOwner, Consumer<BookingDto> consumer);
+
+    SseEmitter subscribe(UserPrincipal principal);
+
+    List<BulkRowResultDto> importAll(UserPrincipal principal, List<BulkRow<BookingDto>> rows);
 }
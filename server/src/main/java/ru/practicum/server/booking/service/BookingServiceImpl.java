@@ -1,87 +1,178 @@
 package ru.practicum.server.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingEventDto;
+import ru.practicum.server.booking.enums.BookingDecisionOutcome;
+import ru.practicum.server.booking.enums.BookingEventType;
 import ru.practicum.server.booking.enums.BookingState;
 import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.exception.BadDataBookingException;
 import ru.practicum.server.booking.exception.BookingNotFoundException;
 import ru.practicum.server.booking.exception.NoAccessBookingException;
 import ru.practicum.server.booking.exception.UnsupportedStatusException;
 import ru.practicum.server.booking.exception.WrongUserApproveException;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
 import ru.practicum.server.booking.mapper.BookingMapper;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.repository.BookingSpecifications;
+import ru.practicum.server.booking.stream.BookingEventHub;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.item.exception.ItemNotAvailableException;
 import ru.practicum.server.item.mapper.ItemMapper;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemStatsRepository;
 import ru.practicum.server.item.service.ItemService;
 import ru.practicum.server.user.dto.UserDto;
+import ru.practicum.server.user.mapper.UserMapper;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_DECISIONS = 100;
+
     private final BookingRepository bookingRepository;
     private final ItemService itemService;
     private final UserService userService;
+    private final EntityManager entityManager;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemStatsRepository itemStatsRepository;
+    private final BookingEventHub bookingEventHub;
 
     @Override
-    public BookingDto save(long userId, BookingDto bookingDto) {
+    public BookingDto save(UserPrincipal principal, BookingDto bookingDto) {
+        long userId = principal.getId();
         UserDto userDto = userService.get(userId);
         Item item = itemService.getAvailableItem(bookingDto.getItemId());
+        long ownerId = item.getOwner().getId();
 
-        if (item.getOwner().getId() == userId) throw new NoAccessBookingException("This is your item");
+        if (ownerId == userId) throw new NoAccessBookingException("This is your item");
 
         bookingDto.setStatus(BookingStatus.WAITING);
         bookingDto.setBooker(userDto);
         bookingDto.setItem(ItemMapper.toItemDto(item));
 
         Booking booking = BookingMapper.toBooking(bookingDto);
-        Booking newBooking = bookingRepository.save(booking);
+        Booking newBooking = bookingIntervalIndex.reserve(
+                item.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                () -> bookingRepository.save(booking)
+        );
+        itemStatsRepository.incrementWaiting(item.getId());
 
-        return BookingMapper.toBookingDto(newBooking);
+        BookingDto newBookingDto = BookingMapper.toBookingDto(newBooking);
+        bookingEventHub.publish(new BookingEventDto(BookingEventType.CREATED, newBookingDto), ownerId);
+        return newBookingDto;
     }
 
     @Override
-    public BookingDto approveBooking(long userId, long bookingId, boolean approved) {
+    public BookingDto approveBooking(UserPrincipal principal, long bookingId, boolean approved) {
+        long userId = principal.getId();
+        BookingStatus status = BookingStatus.REJECTED;
+        if (approved) status = BookingStatus.APPROVED;
+
+        int updated = bookingRepository.compareAndSetStatus(bookingId, userId, BookingStatus.WAITING, status);
         Booking booking = getBooking(bookingId);
 
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new UnsupportedStatusException("Booking is " + booking.getStatus().getValue());
+        if (updated == 0) {
+            if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                throw new UnsupportedStatusException("Booking is " + booking.getStatus().getValue());
+            }
+
+            Item item = booking.getItem();
+            if (!item.isAvailable()) {
+                throw new ItemNotAvailableException("Item with ID:" + item.getId() + " not available");
+            }
+
+            if (booking.getBooker().getId() == userId) {
+                throw new NoAccessBookingException("Only the owner can change the status");
+            }
+            throw new WrongUserApproveException("User № " + userId + " does not have access");
         }
 
-        UserDto user = userService.get(userId);
-        long ownerId = itemService.getAvailableItem(booking.getItem().getId()).getOwner().getId();
+        bookingIntervalIndex.update(booking);
+        recordDecision(booking);
 
-        if (ownerId == user.getId()) {
-            BookingStatus status = BookingStatus.REJECTED;
-            if (approved) status = BookingStatus.APPROVED;
-            booking.setStatus(status);
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+        publishDecision(bookingDto, userId);
+        return bookingDto;
+    }
 
-            bookingRepository.save(booking);
-        } else if (booking.getBooker().getId() == userId) {
-            throw new NoAccessBookingException("Only the owner can change the status");
-        } else {
-            throw new WrongUserApproveException("User № " + userId + " does not have access");
+    @Override
+    public List<BookingDecisionResultDto> approveBookings(UserPrincipal principal, List<BookingDecisionDto> decisions) {
+        long userId = principal.getId();
+        if (decisions.isEmpty() || decisions.size() > MAX_DECISIONS) {
+            throw new BadDataBookingException("Batch must contain from 1 to " + MAX_DECISIONS + " decisions");
+        }
+
+        int[] updated = bookingRepository.compareAndSetStatuses(userId, decisions);
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(decisions.stream()
+                        .map(BookingDecisionDto::getBookingId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionResultDto result = new BookingDecisionResultDto();
+            result.setBookingId(decisions.get(i).getBookingId());
+
+            Booking booking = bookings.get(result.getBookingId());
+            if (booking == null) {
+                result.setOutcome(BookingDecisionOutcome.NOT_FOUND);
+            } else if (booking.getItem().getOwner().getId() != userId) {
+                result.setOutcome(BookingDecisionOutcome.NOT_OWNER);
+            } else if (updated[i] == 0 && booking.getStatus() == BookingStatus.WAITING) {
+                result.setOutcome(BookingDecisionOutcome.NOT_AVAILABLE);
+            } else if (updated[i] == 0) {
+                result.setOutcome(BookingDecisionOutcome.ALREADY_DECIDED);
+            } else {
+                result.setOutcome(BookingDecisionOutcome.UPDATED);
+                result.setBooking(BookingMapper.toBookingDto(booking));
+                bookingIntervalIndex.update(booking);
+                recordDecision(booking);
+                publishDecision(result.getBooking(), userId);
+            }
+            results.add(result);
         }
 
-        return BookingMapper.toBookingDto(booking);
+        return results;
     }
 
     @Transactional(readOnly = true)
     @Override
-    public BookingDto get(long userId, long bookingId) {
-        userService.get(userId);
+    public BookingDto get(UserPrincipal principal, long bookingId) {
+        long userId = principal.getId();
 
         Booking booking = getBooking(bookingId);
         long ownerId = booking.getItem().getOwner().getId();
@@ -96,126 +187,183 @@ public class BookingServiceImpl implements BookingService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<BookingDto> getAll(long userId, BookingState state, boolean isOwner, Pageable pageable) {
-        userService.get(userId);
-        List<Booking> bookingList;
-
-        switch (state) {
-            case FUTURE:
-                if (isOwner) {
-                    bookingList = bookingRepository.findAllByItemOwnerIdAndStartAfter(
-                            userId,
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                } else {
-                    bookingList = bookingRepository.findAllByBookerIdAndStartAfter(
-                            userId,
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                }
-                break;
-            case PAST:
-                if (isOwner) {
-                    bookingList = bookingRepository.findAllByItemOwnerIdAndEndBefore(
-                            userId,
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                } else {
-                    bookingList = bookingRepository.findAllByBookerIdAndEndBefore(
-                            userId,
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                }
-                break;
-            case CURRENT:
-                if (isOwner) {
-                    bookingList = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(
-                            userId,
-                            LocalDateTime.now(),
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                } else {
-                    bookingList = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(
-                            userId,
-                            LocalDateTime.now(),
-                            LocalDateTime.now(),
-                            pageable
-                    );
-                }
-                break;
-            case WAITING:
-                if (isOwner) {
-                    bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(
-                            userId,
-                            BookingStatus.WAITING,
-                            pageable
-                    );
-                } else {
-                    bookingList = bookingRepository.findAllByBookerIdAndStatus(
-                            userId,
-                            BookingStatus.WAITING,
-                            pageable
-                    );
-                }
-                break;
-            case REJECTED:
-                if (isOwner) {
-                    bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(
-                            userId,
-                            BookingStatus.REJECTED,
-                            pageable
-                    );
-                } else {
-                    bookingList = bookingRepository.findAllByBookerIdAndStatus(
-                            userId,
-                            BookingStatus.REJECTED,
-                            pageable
-                    );
-                }
-                break;
-            default:
-                if (isOwner) {
-                    Page<Booking> pages = bookingRepository.findAllByItemOwnerId(userId, pageable);
-                    Optional<PageRequest> editPageable = getLastPage(pageable, pages);
-
-                    bookingList = editPageable.map(pageRequest -> bookingRepository
-                                    .findAllByItemOwnerId(userId, pageRequest)
-                                    .toList())
-                            .orElseGet(pages::toList);
-                } else {
-                    Page<Booking> pages = bookingRepository.findAllByBookerId(userId, pageable);
-                    Optional<PageRequest> editPageable = getLastPage(pageable, pages);
-
-                    bookingList = editPageable.map(pageRequest -> bookingRepository
-                                    .findAllByBookerId(userId, pageRequest)
-                                    .toList())
-                            .orElseGet(pages::toList);
-                }
-                break;
+    public List<BookingDto> getAll(
+            UserPrincipal principal,
+            BookingState state,
+            boolean isOwner,
+            boolean archived,
+            Pageable pageable
+    ) {
+        long userId = principal.getId();
+
+        Specification<Booking> specification = BookingSpecifications.of(
+                userId,
+                isOwner,
+                state,
+                LocalDateTime.now(),
+                archived
+        );
+
+        return bookingRepository.findSlice(specification, pageable).stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAll(
+            UserPrincipal principal,
+            BookingState state,
+            boolean isOwner,
+            boolean archived,
+            LocalDateTime afterStart,
+            long afterId,
+            int size
+    ) {
+        long userId = principal.getId();
+
+        Specification<Booking> specification = BookingSpecifications.of(
+                userId,
+                isOwner,
+                state,
+                LocalDateTime.now(),
+                archived
+        );
+        if (afterStart != null) {
+            specification = specification.and(BookingSpecifications.startsBefore(afterStart, afterId));
         }
 
-        return bookingList.stream()
+        PageRequest pageable = PageRequest.of(0, size, Sort.by("start", "id").descending());
+
+        return bookingRepository.findSlice(specification, pageable).stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void export(UserPrincipal principal, boolean isOwner, Consumer<BookingDto> consumer) {
+        long userId = principal.getId();
 
+        Stream<Booking> bookings = isOwner
+                ? bookingRepository.streamAllByItemOwnerId(userId)
+                : bookingRepository.streamAllByBookerId(userId);
+
+        try (bookings) {
+            bookings.forEach(booking -> {
+                consumer.accept(BookingMapper.toBookingDto(booking));
+                entityManager.detach(booking);
+                entityManager.detach(booking.getItem());
+                entityManager.detach(booking.getBooker());
+            });
+        }
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public SseEmitter subscribe(UserPrincipal principal) {
+        return bookingEventHub.subscribe(principal.getId());
     }
 
-    private Optional<PageRequest> getLastPage(Pageable pageable, Page<Booking> pages) {
-        int totalPages = pages.getTotalPages();
-        int currentPages = pageable.getPageNumber();
-        if (totalPages < currentPages) {
-            return Optional.of(PageRequest.of(totalPages - 1, pageable.getPageSize(), pageable.getSort()));
+    @Override
+    public List<BulkRowResultDto> importAll(UserPrincipal principal, List<BulkRow<BookingDto>> rows) {
+        long userId = principal.getId();
+        User booker = UserMapper.toUser(userService.get(userId));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BulkRowResultDto> results = new ArrayList<>(rows.size());
+        List<BulkRow<BookingDto>> timed = new ArrayList<>();
+        for (BulkRow<BookingDto> row : rows) {
+            String error = checkTime(row.getValue(), now);
+            if (error != null) {
+                results.add(row.rejected(BulkRowOutcome.INVALID, error));
+            } else {
+                timed.add(row);
+            }
+        }
+
+        Map<Long, Item> items = itemService.getItems(timed.stream()
+                .map(row -> row.getValue().getItemId())
+                .collect(Collectors.toSet()));
+        List<BulkRow<BookingDto>> candidates = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (BulkRow<BookingDto> row : timed) {
+            long itemId = row.getValue().getItemId();
+            Item item = items.get(itemId);
+            if (item == null) {
+                results.add(row.rejected(BulkRowOutcome.NOT_FOUND, "Item with ID:" + itemId + " not found"));
+            } else if (!item.isAvailable()) {
+                results.add(row.rejected(BulkRowOutcome.NOT_AVAILABLE, "Item with ID:" + itemId + " not available"));
+            } else if (item.getOwner().getId() == userId) {
+                results.add(row.rejected(BulkRowOutcome.NOT_AVAILABLE, "This is your item"));
+            } else {
+                Booking booking = new Booking();
+                booking.setStart(row.getValue().getStart());
+                booking.setEnd(row.getValue().getEnd());
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                candidates.add(row);
+                bookings.add(booking);
+            }
         }
-        return Optional.empty();
+
+        boolean[] reserved = bookingIntervalIndex.reserveAll(bookings, bookingRepository::insertAll);
+        Map<Long, Long> waiting = new HashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            long itemId = booking.getItem().getId();
+            if (!reserved[i]) {
+                results.add(candidates.get(i).rejected(
+                        BulkRowOutcome.CONFLICT,
+                        "Item with ID:" + itemId + " is already booked for this time"
+                ));
+                continue;
+            }
+
+            waiting.merge(itemId, 1L, Long::sum);
+            long ownerId = booking.getItem().getOwner().getId();
+            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+            bookingEventHub.publish(new BookingEventDto(BookingEventType.CREATED, bookingDto), ownerId);
+            results.add(candidates.get(i).created(booking.getId()));
+        }
+        waiting.forEach(itemStatsRepository::addWaiting);
+
+        return results;
+    }
+
+    private static String checkTime(BookingDto bookingDto, LocalDateTime now) {
+        LocalDateTime start = bookingDto.getStart();
+        LocalDateTime end = bookingDto.getEnd();
+
+        if (start == null || end == null) return "start or end is null";
+        if (start.isBefore(now)) return "start in past tense";
+        if (!end.isAfter(start)) return "end is not after start";
+
+        return null;
     }
 
     private Booking getBooking(long bookingId) {
-        return bookingRepository.findById(bookingId).orElseThrow(
+        return bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(
                 () -> new BookingNotFoundException("Booking with ID:" + bookingId + " not found"));
     }
+
+    private void publishDecision(BookingDto bookingDto, long ownerId) {
+        BookingEventType type = bookingDto.getStatus() == BookingStatus.APPROVED
+                ? BookingEventType.APPROVED
+                : BookingEventType.REJECTED;
+        bookingEventHub.publish(new BookingEventDto(type, bookingDto), ownerId);
+    }
+
+    private void recordDecision(Booking booking) {
+        long itemId = booking.getItem().getId();
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            itemStatsRepository.recordApproved(
+                    itemId,
+                    Duration.between(booking.getStart(), booking.getEnd()).getSeconds()
+            );
+        } else {
+            itemStatsRepository.recordRejected(itemId);
+        }
+    }
 }
\ No newline at end of file
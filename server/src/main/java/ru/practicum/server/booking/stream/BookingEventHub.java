@@ -0,0 +1,166 @@
+package ru.practicum.server.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingEventDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+public class BookingEventHub {
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final long timeout;
+    private final ExecutorService executor;
+
+    public BookingEventHub(
+            @Value("${shareit.booking.stream.buffer-size:256}") int bufferSize,
+            @Value("${shareit.booking.stream.timeout:PT30M}") Duration timeout,
+            @Value("${shareit.booking.stream.threads:2}") int threads
+    ) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout.toMillis();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> updated = userSubscribers == null ? ConcurrentHashMap.newKeySet() : userSubscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(userId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(userId, subscriber));
+        emitter.onError(e -> unsubscribe(userId, subscriber));
+
+        return emitter;
+    }
+
+    public void publish(BookingEventDto event, long ownerId) {
+        long bookerId = event.getBooking().getBooker().getId();
+        afterCommit(() -> {
+            deliver(ownerId, event);
+            if (bookerId != ownerId) deliver(bookerId, event);
+        });
+    }
+
+    public int getSubscriberCount(long userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers == null ? 0 : userSubscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.close(null)));
+        subscribers.clear();
+    }
+
+    private void deliver(long userId, BookingEventDto event) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) return;
+
+        for (Subscriber subscriber : userSubscribers) {
+            if (subscriber.buffer.offer(event)) {
+                drain(subscriber);
+            } else {
+                log.warn("Booking stream of user {} is {} events behind, closing it", userId, bufferSize);
+                unsubscribe(userId, subscriber);
+                subscriber.close(null);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) return;
+
+        executor.execute(() -> {
+            try {
+                BookingEventDto event;
+                while (!subscriber.closed && (event = subscriber.buffer.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.getBooking().getId()))
+                            .name(event.getType().name())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscriber.close(e);
+            } finally {
+                subscriber.draining.set(false);
+            }
+
+            if (!subscriber.closed && !subscriber.buffer.isEmpty()) drain(subscriber);
+        });
+    }
+
+    private void unsubscribe(long userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingEventDto> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<BookingEventDto> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        void close(Throwable error) {
+            if (closed) return;
+
+            closed = true;
+            buffer.clear();
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+        }
+    }
+}
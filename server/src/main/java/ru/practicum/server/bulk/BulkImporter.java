@@ -0,0 +1,126 @@
+package ru.practicum.server.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+@Slf4j
+@Component
+public class BulkImporter {
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public BulkImporter(
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${shareit.bulk.chunk-size:1000}") int chunkSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public <T> void run(
+            InputStream in,
+            String contentEncoding,
+            Class<T> type,
+            Function<List<BulkRow<T>>, List<BulkRowResultDto>> importer,
+            Consumer<BulkRowResultDto> consumer
+    ) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        List<BulkRow<T>> chunk = new ArrayList<>(chunkSize);
+        List<BulkRowResultDto> results = new ArrayList<>();
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                GZIP.equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(in) : in,
+                StandardCharsets.UTF_8
+        ))) {
+            long number = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if (line.isBlank()) continue;
+
+                BulkRow<T> row = new BulkRow<>(number, null);
+                try {
+                    row = new BulkRow<>(number, reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    results.add(row.rejected(BulkRowOutcome.INVALID, "Malformed JSON: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String violations = validate(row.getValue());
+                if (violations != null) {
+                    results.add(row.rejected(BulkRowOutcome.INVALID, violations));
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == chunkSize) flush(chunk, results, importer, consumer);
+            }
+        }
+        flush(chunk, results, importer, consumer);
+    }
+
+    private <T> void flush(
+            List<BulkRow<T>> chunk,
+            List<BulkRowResultDto> results,
+            Function<List<BulkRow<T>>, List<BulkRowResultDto>> importer,
+            Consumer<BulkRowResultDto> consumer
+    ) {
+        if (!chunk.isEmpty()) {
+            try {
+                results.addAll(importer.apply(chunk));
+            } catch (RuntimeException e) {
+                long first = chunk.get(0).getLine();
+                long last = chunk.get(chunk.size() - 1).getLine();
+                log.warn("Bulk import of lines {}-{} failed", first, last, e);
+                for (BulkRow<T> row : chunk) {
+                    results.add(row.rejected(
+                            BulkRowOutcome.FAILED,
+                            "Lines " + first + "-" + last + " could not be written"
+                    ));
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingLong(BulkRowResultDto::getLine));
+        results.forEach(consumer);
+        chunk.clear();
+        results.clear();
+    }
+
+    private <T> String validate(T value) {
+        if (value == null) return "Empty row";
+
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (violations.isEmpty()) return null;
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
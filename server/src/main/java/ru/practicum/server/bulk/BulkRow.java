@@ -0,0 +1,17 @@
+package ru.practicum.server.bulk;
+
+import lombok.Value;
+
+@Value
+public class BulkRow<T> {
+    long line;
+    T value;
+
+    public BulkRowResultDto created(long id) {
+        return new BulkRowResultDto(line, id, BulkRowOutcome.CREATED, null);
+    }
+
+    public BulkRowResultDto rejected(BulkRowOutcome outcome, String message) {
+        return new BulkRowResultDto(line, 0, outcome, message);
+    }
+}
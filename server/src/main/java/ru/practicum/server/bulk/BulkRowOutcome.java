@@ -0,0 +1,11 @@
+package ru.practicum.server.bulk;
+
+public enum BulkRowOutcome {
+    CREATED,
+    INVALID,
+    DUPLICATE,
+    NOT_FOUND,
+    NOT_AVAILABLE,
+    CONFLICT,
+    FAILED
+}
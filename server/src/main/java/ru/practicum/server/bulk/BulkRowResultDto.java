@@ -0,0 +1,15 @@
+package ru.practicum.server.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowResultDto {
+    private long line;
+    private long id;
+    private BulkRowOutcome outcome;
+    private String message;
+}
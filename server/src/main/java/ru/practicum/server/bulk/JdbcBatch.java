@@ -0,0 +1,24 @@
+package ru.practicum.server.bulk;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+public final class JdbcBatch {
+    public static final String[] ID_COLUMN = {"id"};
+
+    private JdbcBatch() {
+    }
+
+    public static <T> void readGeneratedIds(PreparedStatement statement, List<T> rows, ObjLongConsumer<T> setter)
+            throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (T row : rows) {
+                if (!keys.next()) throw new SQLException("Expected " + rows.size() + " generated keys");
+                setter.accept(row, keys.getLong(1));
+            }
+        }
+    }
+}
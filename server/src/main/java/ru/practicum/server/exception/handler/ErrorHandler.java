@@ -5,7 +5,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.server.booking.controller.BookingController;
+import ru.practicum.server.booking.exception.BadDataBookingException;
 import ru.practicum.server.booking.exception.BookingNotFoundException;
+import ru.practicum.server.booking.exception.BookingTimeConflictException;
 import ru.practicum.server.booking.exception.NoAccessBookingException;
 import ru.practicum.server.booking.exception.UnsupportedStatusException;
 import ru.practicum.server.booking.exception.WrongOwnerItemException;
@@ -15,6 +17,7 @@ import ru.practicum.server.item.controller.ItemController;
 import ru.practicum.server.item.exception.BadDataItemException;
 import ru.practicum.server.item.exception.ItemNotAvailableException;
 import ru.practicum.server.item.exception.ItemNotFoundException;
+import ru.practicum.server.pagination.exception.InvalidCursorException;
 import ru.practicum.server.request.controller.RequestController;
 import ru.practicum.server.request.exception.RequestNotFoundException;
 import ru.practicum.server.user.controller.UserController;
@@ -69,6 +72,12 @@ public class ErrorHandler {
         return new ErrorResponse("Unknown state: UNSUPPORTED_STATUS", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBadDataBookingException(final BadDataBookingException e) {
+        return new ErrorResponse("error", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleBookingNotFoundException(final BookingNotFoundException e) {
@@ -86,4 +95,16 @@ public class ErrorHandler {
     public ErrorResponse handleWrongUserApproveException(final WrongUserApproveException e) {
         return new ErrorResponse("error", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingTimeConflictException(final BookingTimeConflictException e) {
+        return new ErrorResponse("error", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(final InvalidCursorException e) {
+        return new ErrorResponse("error", e.getMessage());
+    }
 }
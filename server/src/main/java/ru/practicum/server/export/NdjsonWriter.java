@@ -0,0 +1,35 @@
+package ru.practicum.server.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+public class NdjsonWriter<T> implements Consumer<T> {
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final ObjectWriter writer;
+    private final OutputStream out;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out) {
+        this.writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.out = out;
+    }
+
+    @Override
+    public void accept(T row) {
+        try {
+            writer.writeValue(out, row);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
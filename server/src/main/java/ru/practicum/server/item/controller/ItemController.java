@@ -1,8 +1,11 @@
 package ru.practicum.server.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,14 +16,24 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.server.bulk.BulkImporter;
+import ru.practicum.server.export.NdjsonWriter;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.pagination.Cursor;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -28,63 +41,149 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final BulkImporter bulkImporter;
 
     @PostMapping
     public ResponseEntity<ItemDto> create(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestBody ItemDto itemDto
     ) {
-        return ResponseEntity.ok(itemService.create(userId, itemDto));
+        return ResponseEntity.ok(itemService.create(principal, itemDto));
     }
 
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemDto> update(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestBody ItemDto itemDto,
             @PathVariable long itemId
     ) {
-        return ResponseEntity.ok(itemService.update(userId, itemDto, itemId));
+        return ResponseEntity.ok(itemService.update(principal, itemDto, itemId));
     }
 
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemDto> get(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @PathVariable(value = "itemId") long itemId
     ) {
-        return ResponseEntity.ok(itemService.get(userId, itemId));
+        return ResponseEntity.ok(itemService.get(principal, itemId));
     }
 
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<CommentDto> addComment(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @PathVariable(value = "itemId") long itemId,
             @RequestBody @Valid Comment comment
     ) {
-        return ResponseEntity.ok(itemService.addComment(itemId, userId, comment));
+        return ResponseEntity.ok(itemService.addComment(itemId, principal, comment));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            UserPrincipal principal,
+            @PathVariable(value = "itemId") long itemId,
+            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(name = "cursor", defaultValue = "") String cursor
+    ) {
+        Cursor after = cursor.isEmpty() ? null : Cursor.decode(cursor, 2);
+        return Cursor.toResponse(
+                itemService.getComments(
+                        principal,
+                        itemId,
+                        after == null ? null : after.getDateTime(0),
+                        after == null ? 0 : after.getLong(1),
+                        size
+                ),
+                size,
+                comment -> Cursor.encode(comment.getCreated(), comment.getId())
+        );
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            UserPrincipal principal,
+            @PathVariable(value = "itemId") long itemId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to
+    ) {
+        return ResponseEntity.ok(itemService.getAvailability(principal, itemId, from, to));
     }
 
     @GetMapping
     public ResponseEntity<List<ItemDto>> getAll(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestParam(name = "from", defaultValue = "0") @Min(0) int from,
-            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size
+            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
+        if (cursor != null) {
+            long afterId = cursor.isEmpty() ? 0 : Cursor.decode(cursor, 1).getLong(0);
+            return Cursor.toResponse(
+                    itemService.getAll(principal, afterId, size),
+                    size,
+                    item -> Cursor.encode(item.getId())
+            );
+        }
+
         return ResponseEntity.ok(itemService.getAll(
-                userId,
+                principal,
                 PageRequest.of(from, size, Sort.by("id")))
         );
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<List<ItemStatsDto>> getStats(
+            UserPrincipal principal,
+            @RequestParam(name = "from", defaultValue = "0") @Min(0) int from,
+            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        return ResponseEntity.ok(itemService.getStats(principal, PageRequest.of(from, size, Sort.by("itemId"))));
+    }
+
+    @GetMapping("/export")
+    public void export(
+            UserPrincipal principal,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        itemService.export(principal, new NdjsonWriter<>(objectMapper, response.getOutputStream()));
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(
+            UserPrincipal principal,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        bulkImporter.run(
+                request.getInputStream(),
+                contentEncoding,
+                ItemDto.class,
+                rows -> itemService.importAll(principal, rows),
+                new NdjsonWriter<>(objectMapper, response.getOutputStream())
+        );
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<ItemDto>> search(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestParam(value = "text") String strSearch,
             @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @RequestParam(name = "size", defaultValue = "10") Integer size
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime start,
+            @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime end
     ) {
         return ResponseEntity.ok(itemService.search(
-                userId,
+                principal,
                 strSearch,
+                start,
+                end,
                 PageRequest.of(from, size))
         );
     }
@@ -0,0 +1,15 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityIntervalDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.server.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingItemView {
+    long getId();
+
+    long getItemId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    long getBookerId();
+}
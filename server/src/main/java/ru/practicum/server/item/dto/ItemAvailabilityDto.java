@@ -0,0 +1,15 @@
+package ru.practicum.server.item.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ItemAvailabilityDto {
+    private long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<AvailabilityIntervalDto> free;
+    private List<AvailabilityIntervalDto> occupied;
+}
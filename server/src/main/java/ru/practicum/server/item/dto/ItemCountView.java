@@ -0,0 +1,7 @@
+package ru.practicum.server.item.dto;
+
+public interface ItemCountView {
+    long getItemId();
+
+    long getTotal();
+}
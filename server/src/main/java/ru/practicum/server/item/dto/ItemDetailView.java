@@ -0,0 +1,25 @@
+package ru.practicum.server.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemDetailView {
+    long getId();
+
+    String getName();
+
+    String getDescription();
+
+    boolean getAvailable();
+
+    long getRequestId();
+
+    Long getBookingId();
+
+    LocalDateTime getBookingStart();
+
+    LocalDateTime getBookingEnd();
+
+    Long getBookerId();
+
+    long getCommentsCount();
+}
@@ -14,5 +14,6 @@ public class ItemDto {
     private BookingItemDto nextBooking;
     private BookingItemDto lastBooking;
     private List<CommentDto> comments = new ArrayList<>();
+    private long commentsCount;
     private long requestId;
 }
@@ -0,0 +1,9 @@
+package ru.practicum.server.item.dto;
+
+public interface ItemOwnershipView {
+    long getId();
+
+    Long getOwnerId();
+
+    boolean getAvailable();
+}
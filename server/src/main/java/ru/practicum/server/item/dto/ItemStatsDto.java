@@ -0,0 +1,13 @@
+package ru.practicum.server.item.dto;
+
+import lombok.Data;
+
+@Data
+public class ItemStatsDto {
+    private long itemId;
+    private long waiting;
+    private long approved;
+    private long rejected;
+    private double utilizationDays;
+    private long comments;
+}
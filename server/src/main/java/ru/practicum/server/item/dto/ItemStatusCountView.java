@@ -0,0 +1,11 @@
+package ru.practicum.server.item.dto;
+
+import ru.practicum.server.booking.enums.BookingStatus;
+
+public interface ItemStatusCountView {
+    long getItemId();
+
+    BookingStatus getStatus();
+
+    long getTotal();
+}
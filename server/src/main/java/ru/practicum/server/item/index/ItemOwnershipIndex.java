@@ -0,0 +1,128 @@
+package ru.practicum.server.item.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.item.dto.ItemOwnershipView;
+import ru.practicum.server.item.exception.ItemNotFoundException;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemOwnershipIndex {
+    private static final long MISSING = -1;
+    private static final int WARM_UP_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final LongLongHashMap entries = new LongLongHashMap(MISSING);
+    private final StampedLock lock = new StampedLock();
+
+    public long getOwnerId(long itemId) {
+        return require(itemId) >>> 1;
+    }
+
+    public boolean isAvailable(long itemId) {
+        return (require(itemId) & 1) == 1;
+    }
+
+    public boolean isOwner(long itemId, long userId) {
+        long entry = load(itemId);
+        return entry != MISSING && entry >>> 1 == userId;
+    }
+
+    public void put(Item item) {
+        long id = item.getId();
+        long entry = encode(item.getOwner() == null ? 0 : item.getOwner().getId(), item.isAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(id, entry);
+                }
+            });
+        } else {
+            store(id, entry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long afterId = 0;
+        int count = 0;
+        List<ItemOwnershipView> batch;
+        do {
+            batch = itemRepository.findOwnershipAfter(afterId, PageRequest.of(0, WARM_UP_BATCH_SIZE));
+            for (ItemOwnershipView view : batch) {
+                storeIfAbsent(view.getId(), encode(view));
+                afterId = view.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == WARM_UP_BATCH_SIZE);
+        log.info("Item ownership index loaded with {} items", count);
+    }
+
+    private long require(long itemId) {
+        long entry = load(itemId);
+        if (entry == MISSING) throw new ItemNotFoundException("Item with ID:" + itemId + " not found");
+
+        return entry;
+    }
+
+    private long load(long itemId) {
+        long entry = find(itemId);
+        if (entry != MISSING) return entry;
+
+        return itemRepository.findOwnershipById(itemId)
+                .map(view -> storeIfAbsent(itemId, encode(view)))
+                .orElse(MISSING);
+    }
+
+    private long find(long itemId) {
+        long stamp = lock.readLock();
+        try {
+            return entries.get(itemId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void store(long itemId, long entry) {
+        long stamp = lock.writeLock();
+        try {
+            entries.put(itemId, entry);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long storeIfAbsent(long itemId, long entry) {
+        long stamp = lock.writeLock();
+        try {
+            long current = entries.get(itemId);
+            if (current != MISSING) return current;
+
+            entries.put(itemId, entry);
+            return entry;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long encode(ItemOwnershipView view) {
+        return encode(view.getOwnerId() == null ? 0 : view.getOwnerId(), view.getAvailable());
+    }
+
+    private static long encode(long ownerId, boolean available) {
+        return ownerId << 1 | (available ? 1 : 0);
+    }
+}
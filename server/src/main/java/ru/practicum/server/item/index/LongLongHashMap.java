@@ -0,0 +1,84 @@
+package ru.practicum.server.item.index;
+
+class LongLongHashMap {
+    private static final long EMPTY_KEY = 0;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongLongHashMap(long missingValue) {
+        this.missingValue = missingValue;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    long get(long key) {
+        if (key == EMPTY_KEY) return hasZeroKey ? zeroValue : missingValue;
+
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) return values[i];
+            if (current == EMPTY_KEY) return missingValue;
+        }
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+
+        int i = slot(key);
+        while (keys[i] != EMPTY_KEY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY_KEY) {
+            keys[i] = key;
+            if (++size > keys.length / 2) {
+                values[i] = value;
+                rehash(keys.length * 2);
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == EMPTY_KEY) continue;
+
+            int i = slot(key);
+            while (keys[i] != EMPTY_KEY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -3,14 +3,20 @@ package ru.practicum.server.item.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.item.dto.BookingItemDto;
+import ru.practicum.server.item.dto.BookingItemView;
+import ru.practicum.server.item.dto.ItemDetailView;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.model.ItemStats;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class ItemMapper {
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
     public static ItemDto toItemDto(Item item) {
         ItemDto itemDto = new ItemDto();
         itemDto.setId(item.getId());
@@ -38,6 +44,18 @@ public class ItemMapper {
                 .collect(Collectors.toList());
     }
 
+    public static ItemStatsDto toItemStatsDto(ItemStats itemStats) {
+        ItemStatsDto itemStatsDto = new ItemStatsDto();
+        itemStatsDto.setItemId(itemStats.getItemId());
+        itemStatsDto.setWaiting(itemStats.getWaiting());
+        itemStatsDto.setApproved(itemStats.getApproved());
+        itemStatsDto.setRejected(itemStats.getRejected());
+        itemStatsDto.setUtilizationDays(itemStats.getBookedSeconds() / (double) SECONDS_PER_DAY);
+        itemStatsDto.setComments(itemStats.getComments());
+
+        return itemStatsDto;
+    }
+
     public static BookingItemDto toBookingItemDto(Booking booking) {
         BookingItemDto bookingItemDto = new BookingItemDto();
         bookingItemDto.setId(booking.getId());
@@ -47,4 +65,36 @@ public class ItemMapper {
 
         return bookingItemDto;
     }
+
+    public static BookingItemDto toBookingItemDto(BookingItemView bookingItemView) {
+        BookingItemDto bookingItemDto = new BookingItemDto();
+        bookingItemDto.setId(bookingItemView.getId());
+        bookingItemDto.setStart(bookingItemView.getStartDate());
+        bookingItemDto.setEnd(bookingItemView.getEndDate());
+        bookingItemDto.setBookerId(bookingItemView.getBookerId());
+
+        return bookingItemDto;
+    }
+
+    public static ItemDto toItemDto(ItemDetailView itemDetailView) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(itemDetailView.getId());
+        itemDto.setName(itemDetailView.getName());
+        itemDto.setDescription(itemDetailView.getDescription());
+        itemDto.setAvailable(itemDetailView.getAvailable());
+        itemDto.setRequestId(itemDetailView.getRequestId());
+        itemDto.setCommentsCount(itemDetailView.getCommentsCount());
+
+        return itemDto;
+    }
+
+    public static BookingItemDto toBookingItemDto(ItemDetailView itemDetailView) {
+        BookingItemDto bookingItemDto = new BookingItemDto();
+        bookingItemDto.setId(itemDetailView.getBookingId());
+        bookingItemDto.setStart(itemDetailView.getBookingStart());
+        bookingItemDto.setEnd(itemDetailView.getBookingEnd());
+        bookingItemDto.setBookerId(itemDetailView.getBookerId());
+
+        return bookingItemDto;
+    }
 }
@@ -8,6 +8,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -16,7 +17,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "comments_item_id_created_idx", columnList = "item_id, created, id"))
 public class Comment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
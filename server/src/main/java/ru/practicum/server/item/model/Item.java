@@ -9,13 +9,17 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
 @Data
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "items_owner_id_id_idx", columnList = "owner_id, id"),
+        @Index(name = "items_request_id_idx", columnList = "request_id")
+})
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,33 @@
+package ru.practicum.server.item.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "item_stats", indexes = @Index(name = "item_stats_owner_id_item_id_idx", columnList = "owner_id, item_id"))
+public class ItemStats {
+    @Id
+    @Column(name = "item_id")
+    private long itemId;
+    @Column(name = "owner_id")
+    private long ownerId;
+    private long waiting;
+    private long approved;
+    private long rejected;
+    @Column(name = "booked_seconds")
+    private long bookedSeconds;
+    private long comments;
+
+    public ItemStats(long itemId, long ownerId) {
+        this.itemId = itemId;
+        this.ownerId = ownerId;
+    }
+}
@@ -1,14 +1,36 @@
 package ru.practicum.server.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.server.item.dto.ItemCountView;
 import ru.practicum.server.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 @EnableJpaRepositories
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId_Id(long itemId);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.authorId WHERE c.itemId.id = :itemId " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findNewestWithAuthorByItemId(@Param("itemId") long itemId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.authorId WHERE c.itemId.id = :itemId " +
+            "AND (c.created < :created OR (c.created = :created AND c.id < :id)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findNewestWithAuthorByItemIdBefore(
+            @Param("itemId") long itemId,
+            @Param("created") LocalDateTime created,
+            @Param("id") long id,
+            Pageable pageable
+    );
+
+    @Query("SELECT c.itemId.id AS itemId, COUNT(c) AS total FROM Comment c " +
+            "WHERE c.itemId.id IN :itemIds GROUP BY c.itemId.id")
+    List<ItemCountView> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
@@ -3,22 +3,116 @@ package ru.practicum.server.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.ItemDetailView;
+import ru.practicum.server.item.dto.ItemOwnershipView;
 import ru.practicum.server.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 @EnableJpaRepositories
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    Optional<Item> findByOwnerIdAndIdIs(long owner, long id);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    String APPROVED_BOOKING_IN_WINDOW = "SELECT b.id FROM Booking b WHERE b.item = i " +
+            "AND b.status = ru.practicum.server.booking.enums.BookingStatus.APPROVED " +
+            "AND b.start < :end AND b.end > :start";
 
     Page<Item> findAllByOwnerId(long id, Pageable pageable);
 
+    List<Item> findAllByOwnerIdAndIdGreaterThan(long ownerId, long id, Pageable pageable);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i WHERE i.owner.id = :ownerId ORDER BY i.id")
+    Stream<Item> streamAllByOwnerId(@Param("ownerId") long ownerId);
+
     Page<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(
             String strName,
             String strDesc,
             Pageable pageable
     );
+
+    @Query("SELECT i FROM Item i WHERE i.available = true " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', :#{escape(#text)}, '%')) ESCAPE :#{escapeCharacter()} " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :#{escape(#text)}, '%')) ESCAPE :#{escapeCharacter()}) " +
+            "AND NOT EXISTS (" + APPROVED_BOOKING_IN_WINDOW + ")")
+    List<Item> searchAvailableFree(
+            @Param("text") String text,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable
+    );
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR lower(i.name) LIKE concat('%', :pattern, '%') " +
+            "OR lower(i.description) LIKE concat('%', :pattern, '%')) " +
+            "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', :text)) " +
+            "+ similarity(lower(i.name), lower(:text)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchAvailable(@Param("text") String text, @Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR lower(i.name) LIKE concat('%', :pattern, '%') " +
+            "OR lower(i.description) LIKE concat('%', :pattern, '%')) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED' " +
+            "AND b.start_date < :end AND b.end_date > :start) " +
+            "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', :text)) " +
+            "+ similarity(lower(i.name), lower(:text)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchAvailableFree(
+            @Param("text") String text,
+            @Param("pattern") String pattern,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable
+    );
+
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids AND NOT EXISTS (" + APPROVED_BOOKING_IN_WINDOW + ")")
+    List<Item> findAllFreeByIdIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Query("SELECT i.id AS id, o.id AS ownerId, i.available AS available FROM Item i LEFT JOIN i.owner o " +
+            "WHERE i.id = :id")
+    Optional<ItemOwnershipView> findOwnershipById(@Param("id") long id);
+
+    @Query("SELECT i.id AS id, o.id AS ownerId, i.available AS available FROM Item i LEFT JOIN i.owner o " +
+            "WHERE i.id > :id ORDER BY i.id")
+    List<ItemOwnershipView> findOwnershipAfter(@Param("id") long id, Pageable pageable);
+
+    @Query(value = "SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "i.request_id AS requestId, lb.id AS bookingId, lb.start_date AS bookingStart, " +
+            "lb.end_date AS bookingEnd, lb.booker_id AS bookerId, " +
+            "(SELECT count(*) FROM comments c WHERE c.item_id = i.id) AS commentsCount " +
+            "FROM items i LEFT JOIN (" + BookingRepository.LAST_NEXT_APPROVED_BOOKINGS + ") lb ON lb.item_id = i.id " +
+            "WHERE i.id IN (:itemIds)",
+            nativeQuery = true)
+    List<ItemDetailView> findItemDetails(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("ownerId") long ownerId,
+            @Param("now") LocalDateTime now
+    );
 }
@@ -0,0 +1,9 @@
+package ru.practicum.server.item.repository;
+
+import ru.practicum.server.item.model.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+    void insertAllWithStats(List<Item> items);
+}
@@ -0,0 +1,50 @@
+package ru.practicum.server.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import ru.practicum.server.bulk.JdbcBatch;
+import ru.practicum.server.item.model.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private static final String INSERT_ITEM = "INSERT INTO items (name, description, available, owner_id, request_id) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_STATS = "INSERT INTO item_stats " +
+            "(item_id, owner_id, waiting, approved, rejected, booked_seconds, comments) VALUES (?, ?, 0, 0, 0, 0, 0)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public void insertAllWithStats(List<Item> items) {
+        if (items.isEmpty()) return;
+
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, JdbcBatch.ID_COLUMN)) {
+                for (Item item : items) {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setBoolean(3, item.isAvailable());
+                    statement.setLong(4, item.getOwner().getId());
+                    statement.setLong(5, item.getRequestId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                JdbcBatch.readGeneratedIds(statement, items, Item::setId);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_STATS)) {
+                for (Item item : items) {
+                    statement.setLong(1, item.getId());
+                    statement.setLong(2, item.getOwner().getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.server.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.item.model.ItemStats;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@EnableJpaRepositories
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+    List<ItemStats> findAllByOwnerId(long ownerId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemStats s WHERE s.itemId IN :itemIds ORDER BY s.itemId")
+    List<ItemStats> findAllForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query("UPDATE ItemStats s SET s.waiting = s.waiting + 1 WHERE s.itemId = :itemId")
+    int incrementWaiting(@Param("itemId") long itemId);
+
+    @Modifying
+    @Query("UPDATE ItemStats s SET s.waiting = s.waiting + :count WHERE s.itemId = :itemId")
+    int addWaiting(@Param("itemId") long itemId, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE ItemStats s SET s.waiting = s.waiting - 1, s.approved = s.approved + 1, " +
+            "s.bookedSeconds = s.bookedSeconds + :seconds WHERE s.itemId = :itemId")
+    int recordApproved(@Param("itemId") long itemId, @Param("seconds") long seconds);
+
+    @Modifying
+    @Query("UPDATE ItemStats s SET s.waiting = s.waiting - 1, s.rejected = s.rejected + 1 " +
+            "WHERE s.itemId = :itemId")
+    int recordRejected(@Param("itemId") long itemId);
+
+    @Modifying
+    @Query("UPDATE ItemStats s SET s.comments = s.comments + 1 WHERE s.itemId = :itemId")
+    int incrementComments(@Param("itemId") long itemId);
+}
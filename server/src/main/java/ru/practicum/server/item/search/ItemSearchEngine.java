@@ -0,0 +1,16 @@
+package ru.practicum.server.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.server.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, Pageable pageable);
+
+    List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    default void index(Item item) {
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.server.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "itemsearch")
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "lucene")
+public class ItemSearchIndexEndpoint {
+    private final LuceneItemSearchEngine searchEngine;
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        return Map.of("indexed", searchEngine.rebuild());
+    }
+}
@@ -0,0 +1,286 @@
+package ru.practicum.server.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.MMapDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "lucene")
+public class LuceneItemSearchEngine implements ItemSearchEngine {
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int FREE_HITS_BATCH_SIZE = 100;
+
+    private final ItemRepository itemRepository;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public LuceneItemSearchEngine(
+            ItemRepository itemRepository,
+            @Value("${shareit.search.lucene.path:lucene/items}") Path indexPath
+    ) throws IOException {
+        this.itemRepository = itemRepository;
+        this.writer = new IndexWriter(new MMapDirectory(indexPath), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        List<Long> ids = searchIds(text, pageable);
+
+        return inHitOrder(ids, itemRepository.findAllById(ids));
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        Query query = buildQuery(text);
+        if (query == null) return new ArrayList<>();
+
+        long skip = pageable.getOffset();
+        int size = pageable.getPageSize();
+        int batchSize = Math.max(size, FREE_HITS_BATCH_SIZE);
+        List<Item> items = new ArrayList<>();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc after = null;
+                while (items.size() < size) {
+                    ScoreDoc[] hits = searcher.searchAfter(after, query, batchSize).scoreDocs;
+                    if (hits.length == 0) break;
+
+                    List<Long> ids = toIds(searcher, hits, 0);
+                    for (Item item : inHitOrder(ids, itemRepository.findAllFreeByIdIn(ids, start, end))) {
+                        if (skip > 0) {
+                            skip--;
+                        } else if (items.size() < size) {
+                            items.add(item);
+                        }
+                    }
+                    if (hits.length < batchSize) break;
+
+                    after = hits[hits.length - 1];
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return items;
+    }
+
+    @Override
+    public void index(Item item) {
+        Document document = toDocument(item);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(document);
+                }
+            });
+        } else {
+            update(document);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild();
+    }
+
+    public long rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            writer.deleteAll();
+            long count = 0;
+            Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by(ID));
+            Page<Item> page;
+            do {
+                page = itemRepository.findAll(pageable);
+                for (Item item : page) {
+                    writer.addDocument(toDocument(item));
+                    count++;
+                }
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+            writer.commit();
+            searcherManager.maybeRefresh();
+            log.info("Rebuilt item search index with {} items", count);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search.lucene.commit-interval:PT10S}")
+    public void commit() {
+        rebuildLock.readLock().lock();
+        try {
+            if (writer.hasUncommittedChanges()) writer.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit item search index", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.commit();
+        writer.close();
+    }
+
+    private List<Long> searchIds(String text, Pageable pageable) {
+        Query query = buildQuery(text);
+        if (query == null) return new ArrayList<>();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                ScoreDoc[] hits = searcher.search(query, offset + pageable.getPageSize()).scoreDocs;
+                return toIds(searcher, hits, offset);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Long> toIds(IndexSearcher searcher, ScoreDoc[] hits, int from) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = from; i < hits.length; i++) {
+            ids.add(Long.parseLong(searcher.doc(hits[i].doc).get(ID)));
+        }
+        return ids;
+    }
+
+    private List<Item> inHitOrder(List<Long> ids, List<Item> found) {
+        Map<Long, Item> items = found.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return ids.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.isAvailable())
+                .collect(Collectors.toList());
+    }
+
+    private void update(Document document) {
+        rebuildLock.readLock().lock();
+        try {
+            writer.updateDocument(new Term(ID, document.get(ID)), document);
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to index item with ID:{}", document.get(ID), e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private Document toDocument(Item item) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(item.getId()), Field.Store.YES));
+        document.add(new TextField(NAME, nullToEmpty(item.getName()), Field.Store.NO));
+        document.add(new TextField(DESCRIPTION, nullToEmpty(item.getDescription()), Field.Store.NO));
+        document.add(new StringField(AVAILABLE, String.valueOf(item.isAvailable()), Field.Store.NO));
+        return document;
+    }
+
+    private Query buildQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) return null;
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(AVAILABLE, "true")), BooleanClause.Occur.FILTER);
+        for (String term : terms) {
+            BooleanQuery.Builder termQuery = new BooleanQuery.Builder();
+            for (String field : Arrays.asList(NAME, DESCRIPTION)) {
+                float boost = NAME.equals(field) ? 2f : 1f;
+                termQuery.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+                termQuery.add(new PrefixQuery(new Term(field, term)), BooleanClause.Occur.SHOULD);
+                termQuery.add(new FuzzyQuery(new Term(field, term)), BooleanClause.Occur.SHOULD);
+            }
+            builder.add(termQuery.build(), BooleanClause.Occur.MUST);
+        }
+        return builder.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -1,25 +1,48 @@
 package ru.practicum.server.item.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowResultDto;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ItemService {
-    ItemDto create(long userId, ItemDto itemDto);
+    ItemDto create(UserPrincipal principal, ItemDto itemDto);
 
-    ItemDto update(long userId, ItemDto itemDto, long itemId);
+    ItemDto update(UserPrincipal principal, ItemDto itemDto, long itemId);
 
-    ItemDto get(long userId, long itemId);
+    ItemDto get(UserPrincipal principal, long itemId);
 
-    List<ItemDto> getAll(long userId, Pageable pageable);
+    List<ItemDto> getAll(UserPrincipal principal, Pageable pageable);
 
-    List<ItemDto> search(long userId, String strSearch, Pageable pageable);
+    List<ItemDto> getAll(UserPrincipal principal, long afterId, int size);
 
-    CommentDto addComment(long itemId, long userId, Comment comment);
+    List<ItemDto> search(UserPrincipal principal, String strSearch, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    CommentDto addComment(long itemId, UserPrincipal principal, Comment comment);
+
+    List<CommentDto> getComments(UserPrincipal principal, long itemId, LocalDateTime afterCreated, long afterId, int size);
+
+    ItemAvailabilityDto getAvailability(UserPrincipal principal, long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemStatsDto> getStats(UserPrincipal principal, Pageable pageable);
 
     Item getAvailableItem(long itemId);
+
+    void export(UserPrincipal principal, Consumer<ItemDto> consumer);
+
+    List<BulkRowResultDto> importAll(UserPrincipal principal, List<BulkRow<ItemDto>> rows);
+
+    Map<Long, Item> getItems(Collection<Long> itemIds);
 }
@@ -2,52 +2,82 @@ package ru.practicum.server.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.server.booking.enums.BookingStatus;
 import ru.practicum.server.booking.exception.WrongOwnerItemException;
-import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.item.dto.AvailabilityIntervalDto;
 import ru.practicum.server.item.dto.BookingItemDto;
+import ru.practicum.server.item.dto.BookingItemView;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
+import ru.practicum.server.item.dto.ItemDetailView;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.exception.BadDataItemException;
 import ru.practicum.server.item.exception.ItemNotAvailableException;
 import ru.practicum.server.item.exception.ItemNotFoundException;
+import ru.practicum.server.item.index.ItemOwnershipIndex;
 import ru.practicum.server.item.mapper.CommentMapper;
 import ru.practicum.server.item.mapper.ItemMapper;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.model.ItemStats;
 import ru.practicum.server.item.repository.CommentRepository;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.repository.ItemStatsRepository;
+import ru.practicum.server.item.search.ItemSearchEngine;
+import ru.practicum.server.request.feed.RequestFeed;
 import ru.practicum.server.request.service.RequestService;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.mapper.UserMapper;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+    private static final int AVAILABILITY_DEFAULT_DAYS = 30;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemStatsRepository itemStatsRepository;
     private final UserService userService;
     private final RequestService requestService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemOwnershipIndex itemOwnershipIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final RequestFeed requestFeed;
+    private final EntityManager entityManager;
 
     @Transactional
     @Override
-    public ItemDto create(long userId, ItemDto itemDto) {
+    public ItemDto create(UserPrincipal principal, ItemDto itemDto) {
+        long userId = principal.getId();
         UserDto userDto = userService.get(userId);
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(UserMapper.toUser(userDto));
@@ -58,32 +88,51 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item newItem = itemRepository.save(item);
-        return ItemMapper.toItemDto(newItem);
+        itemStatsRepository.save(new ItemStats(newItem.getId(), userId));
+        itemSearchEngine.index(newItem);
+        itemOwnershipIndex.put(newItem);
+        ItemDto newItemDto = ItemMapper.toItemDto(newItem);
+        requestFeed.putItem(newItemDto);
+        return newItemDto;
     }
 
     @Transactional
     @Override
-    public ItemDto update(long userId, ItemDto itemDto, long itemId) {
+    public ItemDto update(UserPrincipal principal, ItemDto itemDto, long itemId) {
+        long userId = principal.getId();
         Item oldItem = getItemOwner(itemId, userId);
         changeItemData(itemDto, oldItem);
         Item newItem = itemRepository.save(oldItem);
+        itemSearchEngine.index(newItem);
+        itemOwnershipIndex.put(newItem);
+        ItemDto newItemDto = ItemMapper.toItemDto(newItem);
+        requestFeed.putItem(newItemDto);
 
-        return ItemMapper.toItemDto(newItem);
+        return newItemDto;
     }
 
     @Override
-    public ItemDto get(long userId, long itemId) {
-        userService.get(userId);
-
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new ItemNotFoundException("Item with ID:" + itemId + "not found")
-        );
-
-        ItemDto itemDto = ItemMapper.toItemDto(item);
-
-        setLastNextBooking(itemDto, userId);
+    public ItemDto get(UserPrincipal principal, long itemId) {
+        long userId = principal.getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemDetailView> rows = itemRepository.findItemDetails(List.of(itemId), userId, now);
+        if (rows.isEmpty()) throw new ItemNotFoundException("Item with ID:" + itemId + "not found");
+
+        ItemDto itemDto = ItemMapper.toItemDto(rows.get(0));
+        for (ItemDetailView row : rows) {
+            if (row.getBookingId() == null) continue;
+            if (row.getBookingStart().isAfter(now)) {
+                itemDto.setNextBooking(ItemMapper.toBookingItemDto(row));
+            } else {
+                itemDto.setLastBooking(ItemMapper.toBookingItemDto(row));
+            }
+        }
 
-        List<CommentDto> comments = commentRepository.findAllByItemId_Id(itemId).stream()
+        List<CommentDto> comments = commentRepository.findNewestWithAuthorByItemId(
+                        itemId,
+                        PageRequest.of(0, COMMENTS_PREVIEW_SIZE)
+                ).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
 
@@ -93,58 +142,139 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> getAll(long userId, Pageable pageable) {
-        return itemRepository.findAllByOwnerId(userId, pageable).stream()
-                .map(ItemMapper::toItemDto)
-                .peek(itemDto -> setLastNextBooking(itemDto, userId))
-                .collect(Collectors.toList());
+    public List<ItemDto> getAll(UserPrincipal principal, Pageable pageable) {
+        long userId = principal.getId();
+        List<ItemDto> items = ItemMapper.listToItemDto(itemRepository.findAllByOwnerId(userId, pageable).toList());
+        setLastNextBooking(items, userId);
+
+        return items;
     }
 
     @Override
-    public List<ItemDto> search(long userId, String strSearch, Pageable pageable) {
-        userService.get(userId);
-        if (strSearch.isBlank()) return new ArrayList<>();
+    public List<ItemDto> getAll(UserPrincipal principal, long afterId, int size) {
+        long userId = principal.getId();
+        List<ItemDto> items = ItemMapper.listToItemDto(itemRepository.findAllByOwnerIdAndIdGreaterThan(
+                userId,
+                afterId,
+                PageRequest.of(0, size, Sort.by("id"))
+        ));
+        setLastNextBooking(items, userId);
+
+        return items;
+    }
 
-        Page<Item> items = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(
-                        strSearch,
-                        strSearch,
-                        pageable
-                );
+    @Override
+    public List<ItemDto> search(
+            UserPrincipal principal,
+            String strSearch,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable
+    ) {
+        if (start == null && end == null) {
+            if (strSearch.isBlank()) return new ArrayList<>();
+
+            return ItemMapper.listToItemDto(itemSearchEngine.search(strSearch, pageable));
+        }
 
-        return ItemMapper.listToItemDto(items.toList());
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new BadDataItemException("Search window needs start before end");
+        }
+        if (strSearch.isBlank()) return new ArrayList<>();
+
+        return ItemMapper.listToItemDto(itemSearchEngine.searchFree(strSearch, start, end, pageable));
     }
 
     @Transactional
     @Override
-    public CommentDto addComment(long itemId, long userId, Comment comment) {
+    public CommentDto addComment(long itemId, UserPrincipal principal, Comment comment) {
+        long userId = principal.getId();
         UserDto userDto = userService.get(userId);
 
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new ItemNotFoundException("Item not found № " + itemId)
         );
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndEndBeforeAndStatus(
-                userId,
-                LocalDateTime.now(),
-                BookingStatus.APPROVED
+        boolean used = bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now()
         );
 
-        Optional<Booking> booking = bookingList.stream()
-                .filter(book -> book.getItem().getId() == itemId)
-                .findFirst();
-
-        if (booking.isPresent()) {
+        if (used) {
             comment.setAuthorId(UserMapper.toUser(userDto));
             comment.setItemId(item);
             comment.setCreated(LocalDateTime.now());
             Comment newComment = commentRepository.save(comment);
+            itemStatsRepository.incrementComments(itemId);
             return CommentMapper.toCommentDto(newComment);
         } else {
             throw new BadDataItemException("Comment can be added after using the item");
         }
     }
 
+    @Override
+    public List<CommentDto> getComments(
+            UserPrincipal principal,
+            long itemId,
+            LocalDateTime afterCreated,
+            long afterId,
+            int size
+    ) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException("Item with ID:" + itemId + "not found");
+        }
+
+        PageRequest pageable = PageRequest.of(0, size);
+        List<Comment> comments = afterCreated == null
+                ? commentRepository.findNewestWithAuthorByItemId(itemId, pageable)
+                : commentRepository.findNewestWithAuthorByItemIdBefore(itemId, afterCreated, afterId, pageable);
+
+        return comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(UserPrincipal principal, long itemId, LocalDateTime from, LocalDateTime to) {
+        boolean available = itemOwnershipIndex.isAvailable(itemId);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plusDays(AVAILABILITY_DEFAULT_DAYS) : to;
+        if (!start.isBefore(end)) {
+            throw new BadDataItemException("Availability window must end after " + start);
+        }
+
+        List<AvailabilityIntervalDto> occupied = bookingIntervalIndex.getOccupied(itemId, start, end);
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        if (available) {
+            LocalDateTime freeFrom = start;
+            for (AvailabilityIntervalDto interval : occupied) {
+                if (freeFrom.isBefore(interval.getStart())) {
+                    free.add(new AvailabilityIntervalDto(freeFrom, interval.getStart()));
+                }
+                freeFrom = interval.getEnd();
+            }
+            if (freeFrom.isBefore(end)) free.add(new AvailabilityIntervalDto(freeFrom, end));
+        }
+
+        ItemAvailabilityDto availability = new ItemAvailabilityDto();
+        availability.setItemId(itemId);
+        availability.setFrom(start);
+        availability.setTo(end);
+        availability.setFree(free);
+        availability.setOccupied(occupied);
+        return availability;
+    }
+
+    @Override
+    public List<ItemStatsDto> getStats(UserPrincipal principal, Pageable pageable) {
+        long userId = principal.getId();
+
+        return itemStatsRepository.findAllByOwnerId(userId, pageable).stream()
+                .map(ItemMapper::toItemStatsDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Item getAvailableItem(long itemId) {
         Item item = itemRepository.findById(itemId)
@@ -155,27 +285,91 @@ public class ItemServiceImpl implements ItemService {
         return item;
     }
 
-    private void setLastNextBooking(ItemDto itemDto, long userId) {
-        List<Booking> bookingList = bookingRepository.findBookingByItemIdAndItemOwnerIdAndStatus(
-                itemDto.getId(),
-                userId,
-                BookingStatus.APPROVED
-        );
+    @Override
+    public void export(UserPrincipal principal, Consumer<ItemDto> consumer) {
+        long userId = principal.getId();
+
+        try (Stream<Item> items = itemRepository.streamAllByOwnerId(userId)) {
+            items.forEach(item -> {
+                consumer.accept(ItemMapper.toItemDto(item));
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    @Transactional
+    @Override
+    public List<BulkRowResultDto> importAll(UserPrincipal principal, List<BulkRow<ItemDto>> rows) {
+        User owner = UserMapper.toUser(userService.get(principal.getId()));
+        Set<Long> requestIds = requestService.findExistingIds(rows.stream()
+                .map(row -> row.getValue().getRequestId())
+                .filter(requestId -> requestId != 0)
+                .collect(Collectors.toSet()));
+
+        List<BulkRowResultDto> results = new ArrayList<>(rows.size());
+        List<BulkRow<ItemDto>> accepted = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (BulkRow<ItemDto> row : rows) {
+            ItemDto itemDto = row.getValue();
+            if (isBlank(itemDto.getName()) || isBlank(itemDto.getDescription()) || itemDto.getAvailable() == null) {
+                results.add(row.rejected(BulkRowOutcome.INVALID, "Required fields are missing"));
+                continue;
+            }
+
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(0);
+            item.setOwner(owner);
+            if (requestIds.contains(itemDto.getRequestId())) item.setRequestId(itemDto.getRequestId());
+            accepted.add(row);
+            items.add(item);
+        }
 
-        BookingItemDto nextBooking = bookingList.stream()
-                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                .map(ItemMapper::toBookingItemDto)
-                .min(Comparator.comparing(BookingItemDto::getStart))
-                .orElse(null);
+        itemRepository.insertAllWithStats(items);
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            itemSearchEngine.index(item);
+            itemOwnershipIndex.put(item);
+            requestFeed.putItem(ItemMapper.toItemDto(item));
+            results.add(accepted.get(i).created(item.getId()));
+        }
+        log.info("Import {} of {} Items for User with ID:{}", items.size(), rows.size(), owner.getId());
+        return results;
+    }
 
-        BookingItemDto lastBooking = bookingList.stream()
-                .filter(booking -> booking.getStart().isBefore(LocalDateTime.now()))
-                .map(ItemMapper::toBookingItemDto)
-                .max(Comparator.comparing(BookingItemDto::getEnd))
-                .orElse(null);
+    @Override
+    public Map<Long, Item> getItems(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return Map.of();
 
-        itemDto.setNextBooking(nextBooking);
-        itemDto.setLastBooking(lastBooking);
+        return itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    private void setLastNextBooking(List<ItemDto> items, long userId) {
+        if (items.isEmpty()) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<BookingItemView>> bookings = bookingRepository
+                .findLastAndNextApprovedBookings(itemIds, userId, now).stream()
+                .collect(Collectors.groupingBy(BookingItemView::getItemId));
+
+        for (ItemDto itemDto : items) {
+            for (BookingItemView booking : bookings.getOrDefault(itemDto.getId(), List.of())) {
+                BookingItemDto bookingItemDto = ItemMapper.toBookingItemDto(booking);
+                if (booking.getStartDate().isAfter(now)) {
+                    itemDto.setNextBooking(bookingItemDto);
+                } else {
+                    itemDto.setLastBooking(bookingItemDto);
+                }
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     private void changeItemData(ItemDto itemDto, Item oldItem) {
@@ -185,7 +379,11 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private Item getItemOwner(long itemId, long userId) {
-        return itemRepository.findByOwnerIdAndIdIs(userId, itemId).orElseThrow(
+        if (!itemOwnershipIndex.isOwner(itemId, userId)) {
+            throw new WrongOwnerItemException("The user with ID:" + userId + " is not the owner");
+        }
+
+        return itemRepository.findById(itemId).orElseThrow(
                 () -> new WrongOwnerItemException("The user with ID:" + userId + " is not the owner")
         );
     }
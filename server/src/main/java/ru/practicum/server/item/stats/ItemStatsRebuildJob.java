@@ -0,0 +1,111 @@
+package ru.practicum.server.item.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.dto.BookingPeriodView;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.ItemCountView;
+import ru.practicum.server.item.dto.ItemOwnershipView;
+import ru.practicum.server.item.dto.ItemStatusCountView;
+import ru.practicum.server.item.model.ItemStats;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.repository.ItemStatsRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemStatsRebuildJob {
+    private static final int BATCH_SIZE = 500;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemStatsRepository itemStatsRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${shareit.item.stats.rebuild-cron:0 30 3 * * *}")
+    public long rebuild() {
+        long rebuilt = 0;
+        long afterId = 0;
+        List<ItemOwnershipView> batch;
+        do {
+            batch = itemRepository.findOwnershipAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) break;
+
+            List<ItemOwnershipView> items = batch;
+            transactionTemplate.executeWithoutResult(status -> rebuild(items));
+            rebuilt += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == BATCH_SIZE);
+
+        log.info("Rebuilt stats for {} items", rebuilt);
+        return rebuilt;
+    }
+
+    private void rebuild(List<ItemOwnershipView> items) {
+        List<Long> itemIds = items.stream()
+                .map(ItemOwnershipView::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemStats> stored = itemStatsRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemStats::getItemId, Function.identity()));
+
+        Map<Long, ItemStats> rebuilt = items.stream()
+                .collect(Collectors.toMap(
+                        ItemOwnershipView::getId,
+                        item -> new ItemStats(item.getId(), item.getOwnerId() == null ? 0 : item.getOwnerId())
+                ));
+        for (ItemStatusCountView count : bookingRepository.countByItemIdInGroupByStatus(itemIds)) {
+            ItemStats stats = rebuilt.get(count.getItemId());
+            switch (count.getStatus()) {
+                case WAITING:
+                    stats.setWaiting(count.getTotal());
+                    break;
+                case APPROVED:
+                    stats.setApproved(count.getTotal());
+                    break;
+                case REJECTED:
+                    stats.setRejected(count.getTotal());
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (BookingPeriodView period : bookingRepository.findPeriodsByItemIdInAndStatus(
+                itemIds,
+                BookingStatus.APPROVED
+        )) {
+            ItemStats stats = rebuilt.get(period.getItemId());
+            stats.setBookedSeconds(
+                    stats.getBookedSeconds() + Duration.between(period.getStart(), period.getEnd()).getSeconds()
+            );
+        }
+        for (ItemCountView count : commentRepository.countByItemIdIn(itemIds)) {
+            rebuilt.get(count.getItemId()).setComments(count.getTotal());
+        }
+
+        for (ItemStats stats : rebuilt.values()) {
+            ItemStats current = stored.get(stats.getItemId());
+            if (current == null) {
+                entityManager.persist(stats);
+            } else if (!current.equals(stats)) {
+                log.info("Stats drift for item {}: {} -> {}", stats.getItemId(), current, stats);
+                entityManager.merge(stats);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
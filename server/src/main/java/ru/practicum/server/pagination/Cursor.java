@@ -0,0 +1,71 @@
+package ru.practicum.server.pagination;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.server.pagination.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    private final String value;
+    private final String[] keys;
+
+    private Cursor(String value, String[] keys) {
+        this.value = value;
+        this.keys = keys;
+    }
+
+    public static String encode(Object... keys) {
+        String raw = Arrays.stream(keys)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String value, int size) {
+        String[] keys;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            keys = raw.split(Pattern.quote(SEPARATOR), -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + value);
+        }
+        if (keys.length != size) throw new InvalidCursorException("Invalid cursor: " + value);
+
+        return new Cursor(value, keys);
+    }
+
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> page, int size, Function<T, String> cursorOf) {
+        if (page.size() < size) return ResponseEntity.ok(page);
+
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)))
+                .body(page);
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(keys[index]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + value);
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(keys[index]);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + value);
+        }
+    }
+}
@@ -8,12 +8,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.server.pagination.Cursor;
 import ru.practicum.server.request.dto.RequestDto;
 import ru.practicum.server.request.service.RequestService;
+import ru.practicum.server.user.principal.UserPrincipal;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -27,26 +28,41 @@ public class RequestController {
 
     @PostMapping
     public ResponseEntity<RequestDto> create(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestBody RequestDto requestDto
     ) {
-        return ResponseEntity.ok(requestService.create(userId, requestDto));
+        return ResponseEntity.ok(requestService.create(principal, requestDto));
     }
 
     @GetMapping
     public ResponseEntity<List<RequestDto>> getOwnerRequest(
-            @RequestHeader("X-Sharer-User-Id") long userId
+            UserPrincipal principal
     ) {
-        return ResponseEntity.ok(requestService.getOwnerRequests(userId));
+        return ResponseEntity.ok(requestService.getOwnerRequests(principal));
     }
 
     @GetMapping("/all")
     public ResponseEntity<List<RequestDto>> getAll(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            UserPrincipal principal,
             @RequestParam(name = "from", defaultValue = "0") @Min(0) int from,
-            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size
+            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        return ResponseEntity.ok(requestService.getAll(userId, PageRequest.of(
+        if (cursor != null) {
+            Cursor after = cursor.isEmpty() ? null : Cursor.decode(cursor, 2);
+            return Cursor.toResponse(
+                    requestService.getAll(
+                            principal,
+                            after == null ? null : after.getDateTime(0),
+                            after == null ? 0 : after.getLong(1),
+                            size
+                    ),
+                    size,
+                    request -> Cursor.encode(request.getCreated(), request.getId())
+            );
+        }
+
+        return ResponseEntity.ok(requestService.getAll(principal, PageRequest.of(
                 from,
                 size,
                 Sort.by("created").descending())
@@ -55,9 +71,9 @@ public class RequestController {
 
     @GetMapping("/{requestId}")
     public ResponseEntity<RequestDto> get(
-            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            UserPrincipal principal,
             @PathVariable(name = "requestId") Integer requestId
     ) {
-        return ResponseEntity.ok(requestService.get(userId, requestId));
+        return ResponseEntity.ok(requestService.get(principal, requestId));
     }
 }
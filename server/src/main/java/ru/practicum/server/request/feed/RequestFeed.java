@@ -0,0 +1,178 @@
+package ru.practicum.server.request.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.RequestDto;
+import ru.practicum.server.request.mapper.RequestMapper;
+import ru.practicum.server.request.model.Request;
+import ru.practicum.server.request.repository.RequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class RequestFeed {
+    private static final Comparator<RequestDto> NEWEST_FIRST = Comparator
+            .comparing(RequestDto::getCreated, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(RequestDto::getId, Comparator.reverseOrder());
+
+    private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean complete;
+
+    public RequestFeed(
+            RequestRepository requestRepository,
+            ItemRepository itemRepository,
+            @Value("${shareit.request.feed.capacity:1000}") int capacity
+    ) {
+        this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void append(RequestDto requestDto) {
+        RequestDto snapshot = RequestMapper.copy(requestDto, requestDto.getItems());
+        afterCommit(() -> {
+            long sequence = head.getAndIncrement();
+            slots.set(index(sequence), new Entry(sequence, snapshot));
+        });
+    }
+
+    public void putItem(ItemDto itemDto) {
+        if (itemDto.getRequestId() == 0) return;
+
+        afterCommit(() -> {
+            long top = head.get();
+            for (long sequence = top - 1; sequence >= Math.max(0, top - capacity); sequence--) {
+                if (replaceItem(sequence, itemDto)) return;
+            }
+        });
+    }
+
+    public Optional<List<RequestDto>> findAll(long userId, long offset, int size) {
+        return find(userId, request -> true, offset, size);
+    }
+
+    public Optional<List<RequestDto>> findAllBefore(long userId, LocalDateTime created, long id, int size) {
+        if (created == null) return findAll(userId, 0, size);
+
+        return find(userId, request -> request.getCreated() != null
+                && (request.getCreated().isBefore(created)
+                || request.getCreated().isEqual(created) && request.getId() < id), 0, size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Request> requests = requestRepository.findAll(
+                PageRequest.of(0, capacity, Sort.by("created", "id").descending())
+        ).getContent();
+        List<Long> requestIds = requests.stream()
+                .map(Request::getId)
+                .collect(Collectors.toList());
+        List<RequestDto> newest = RequestMapper.toRequestDtos(
+                requests,
+                requestIds.isEmpty() ? List.of() : itemRepository.findAllByRequestIdIn(requestIds)
+        );
+
+        if (!head.compareAndSet(0, newest.size())) {
+            log.info("Request feed already receives new requests, warm-up skipped");
+            return;
+        }
+        for (int i = 0; i < newest.size(); i++) {
+            long sequence = newest.size() - 1 - i;
+            slots.set(index(sequence), new Entry(sequence, newest.get(i)));
+        }
+        complete = newest.size() < capacity;
+        log.info("Request feed loaded with {} requests", newest.size());
+    }
+
+    private Optional<List<RequestDto>> find(long userId, Predicate<RequestDto> filter, long offset, int size) {
+        long top = head.get();
+        boolean whole = complete && top <= capacity;
+        List<RequestDto> requests = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (long sequence = top - 1; sequence >= Math.max(0, top - capacity); sequence--) {
+            Entry entry = slots.get(index(sequence));
+            if (entry == null || entry.sequence != sequence) return Optional.empty();
+
+            RequestDto request = entry.request;
+            if (request.getRequestor() != userId && filter.test(request) && seen.add(request.getId())) {
+                requests.add(request);
+            }
+        }
+        if (!whole && requests.size() < offset + size) return Optional.empty();
+
+        return Optional.of(requests.stream()
+                .sorted(NEWEST_FIRST)
+                .skip(offset)
+                .limit(size)
+                .map(request -> RequestMapper.copy(request, request.getItems()))
+                .collect(Collectors.toList()));
+    }
+
+    private boolean replaceItem(long sequence, ItemDto itemDto) {
+        int index = index(sequence);
+        while (true) {
+            Entry entry = slots.get(index);
+            if (entry == null || entry.sequence != sequence) return false;
+            if (entry.request.getId() != itemDto.getRequestId()) return false;
+
+            List<ItemDto> items = entry.request.getItems().stream()
+                    .filter(item -> item.getId() != itemDto.getId())
+                    .collect(Collectors.toList());
+            items.add(itemDto);
+            Entry updated = new Entry(sequence, RequestMapper.copy(entry.request, items));
+            if (slots.compareAndSet(index, entry, updated)) return true;
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Entry {
+        private final long sequence;
+        private final RequestDto request;
+
+        private Entry(long sequence, RequestDto request) {
+            this.sequence = sequence;
+            this.request = request;
+        }
+    }
+}
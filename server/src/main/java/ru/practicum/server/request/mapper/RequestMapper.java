@@ -3,11 +3,14 @@ package ru.practicum.server.request.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.mapper.ItemMapper;
+import ru.practicum.server.item.model.Item;
 import ru.practicum.server.request.dto.RequestDto;
 import ru.practicum.server.request.model.Request;
 import ru.practicum.server.user.model.User;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -23,16 +26,40 @@ public class RequestMapper {
     }
 
     public static RequestDto toRequestDto(Request request) {
+        return toRequestDto(request, List.of());
+    }
+
+    public static RequestDto toRequestDto(Request request, List<Item> requestItems) {
         RequestDto requestDto = new RequestDto();
         requestDto.setId(request.getId());
         requestDto.setDescription(request.getDescription());
         requestDto.setRequestor(request.getRequestor().getId());
         requestDto.setCreated(request.getCreated());
-        List<ItemDto> items = request.getItems().stream()
+        List<ItemDto> items = requestItems.stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
         requestDto.setItems(items);
 
         return requestDto;
     }
+
+    public static List<RequestDto> toRequestDtos(List<Request> requests, List<Item> requestItems) {
+        Map<Long, List<Item>> itemsByRequest = requestItems.stream()
+                .collect(Collectors.groupingBy(Item::getRequestId));
+
+        return requests.stream()
+                .map(request -> toRequestDto(request, itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public static RequestDto copy(RequestDto requestDto, List<ItemDto> items) {
+        RequestDto copy = new RequestDto();
+        copy.setId(requestDto.getId());
+        copy.setDescription(requestDto.getDescription());
+        copy.setRequestor(requestDto.getRequestor());
+        copy.setCreated(requestDto.getCreated());
+        copy.setItems(new ArrayList<>(items));
+
+        return copy;
+    }
 }
@@ -3,10 +3,14 @@ package ru.practicum.server.request.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.server.request.model.Request;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +18,20 @@ import java.util.List;
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByRequestorIdOrderByCreatedDesc(long userId);
 
+    @Query("SELECT r.id FROM Request r WHERE r.id IN :ids")
+    List<Long> findIdsIn(@Param("ids") Collection<Long> ids);
+
     Page<Request> findRequestsByRequestorIdIsNot(long userId, Pageable pageable);
+
+    List<Request> findAllByRequestorIdIsNot(long userId, Pageable pageable);
+
+    @Query("SELECT r FROM Request r " +
+            "WHERE r.requestor.id <> :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id))")
+    List<Request> findAllByRequestorIdIsNotBefore(
+            @Param("userId") long userId,
+            @Param("created") LocalDateTime created,
+            @Param("id") long id,
+            Pageable pageable
+    );
 }
@@ -2,17 +2,25 @@ package ru.practicum.server.request.service;
 
 import org.springframework.data.domain.Pageable;
 import ru.practicum.server.request.dto.RequestDto;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface RequestService {
-    RequestDto create(long userId, RequestDto requestDto);
+    RequestDto create(UserPrincipal principal, RequestDto requestDto);
 
-    List<RequestDto> getOwnerRequests(long userId);
+    List<RequestDto> getOwnerRequests(UserPrincipal principal);
 
-    List<RequestDto> getAll(long userId, Pageable pageable);
+    List<RequestDto> getAll(UserPrincipal principal, Pageable pageable);
 
-    RequestDto get(long userId, long requestId);
+    List<RequestDto> getAll(UserPrincipal principal, LocalDateTime afterCreated, long afterId, int size);
+
+    RequestDto get(UserPrincipal principal, long requestId);
 
     boolean existsById(long requestId);
+
+    Set<Long> findExistingIds(Collection<Long> requestIds);
 }
@@ -1,20 +1,29 @@
 package ru.practicum.server.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.dto.RequestDto;
 import ru.practicum.server.request.exception.RequestNotFoundException;
+import ru.practicum.server.request.feed.RequestFeed;
 import ru.practicum.server.request.mapper.RequestMapper;
 import ru.practicum.server.request.model.Request;
 import ru.practicum.server.request.repository.RequestRepository;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,46 +31,81 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestFeed requestFeed;
     private final UserService userService;
 
     @Transactional
     @Override
-    public RequestDto create(long userId, RequestDto requestDto) {
+    public RequestDto create(UserPrincipal principal, RequestDto requestDto) {
+        long userId = principal.getId();
         User user = UserMapper.toUser(userService.get(userId));
         requestDto.setCreated(LocalDateTime.now());
         Request request = RequestMapper.toRequest(requestDto, user);
 
         Request newRequest = requestRepository.save(request);
-        return RequestMapper.toRequestDto(newRequest);
+        RequestDto newRequestDto = RequestMapper.toRequestDto(newRequest);
+        requestFeed.append(newRequestDto);
+        return newRequestDto;
     }
 
     @Override
-    public List<RequestDto> getOwnerRequests(long userId) {
-        userService.get(userId);
-        return requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId).stream()
-                .map(RequestMapper::toRequestDto)
-                .collect(Collectors.toList());
+    public List<RequestDto> getOwnerRequests(UserPrincipal principal) {
+        long userId = principal.getId();
+        return toRequestDtos(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
     }
 
     @Override
-    public List<RequestDto> getAll(long userId, Pageable pageable) {
-        userService.get(userId);
-        return requestRepository.findRequestsByRequestorIdIsNot(userId, pageable).stream()
-                .map(RequestMapper::toRequestDto)
-                .collect(Collectors.toList());
+    public List<RequestDto> getAll(UserPrincipal principal, Pageable pageable) {
+        long userId = principal.getId();
+        return requestFeed.findAll(userId, pageable.getOffset(), pageable.getPageSize())
+                .orElseGet(() -> toRequestDtos(requestRepository.findAllByRequestorIdIsNot(userId, pageable)));
     }
 
     @Override
-    public RequestDto get(long userId, long requestId) {
-        userService.get(userId);
+    public List<RequestDto> getAll(UserPrincipal principal, LocalDateTime afterCreated, long afterId, int size) {
+        long userId = principal.getId();
+        Optional<List<RequestDto>> fromFeed = requestFeed.findAllBefore(userId, afterCreated, afterId, size);
+        if (fromFeed.isPresent()) return fromFeed.get();
+
+        PageRequest pageable = PageRequest.of(0, size, Sort.by("created", "id").descending());
+
+        List<Request> requests = afterCreated == null
+                ? requestRepository.findAllByRequestorIdIsNot(userId, pageable)
+                : requestRepository.findAllByRequestorIdIsNotBefore(userId, afterCreated, afterId, pageable);
+
+        return toRequestDtos(requests);
+    }
+
+    @Override
+    public RequestDto get(UserPrincipal principal, long requestId) {
         Request request = requestRepository.findById(requestId).orElseThrow(
                 () -> new RequestNotFoundException("Request with ID:" + requestId + "not found")
         );
-        return RequestMapper.toRequestDto(request);
+        return RequestMapper.toRequestDto(request, itemRepository.findAllByRequestIdIn(List.of(requestId)));
     }
 
     @Override
     public boolean existsById(long requestId) {
         return requestRepository.existsById(requestId);
     }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) return Set.of();
+
+        return new HashSet<>(requestRepository.findIdsIn(requestIds));
+    }
+
+    private List<RequestDto> toRequestDtos(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> requestIds = requests.stream()
+                .map(Request::getId)
+                .collect(Collectors.toList());
+
+        return RequestMapper.toRequestDtos(requests, itemRepository.findAllByRequestIdIn(requestIds));
+    }
 }
@@ -1,6 +1,10 @@
 package ru.practicum.server.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,12 +13,22 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.server.bulk.BulkImporter;
+import ru.practicum.server.export.NdjsonWriter;
+import ru.practicum.server.pagination.Cursor;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -23,6 +37,8 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final BulkImporter bulkImporter;
 
     @PostMapping
     public ResponseEntity<UserDto> create(@Valid @RequestBody UserDto userDto) {
@@ -45,8 +61,43 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAll() {
-        return ResponseEntity.ok(userService.getAll());
+    public ResponseEntity<List<UserDto>> getAll(
+            @RequestParam(name = "from", defaultValue = "0") @Min(0) int from,
+            @RequestParam(name = "size", defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        if (cursor != null) {
+            long afterId = cursor.isEmpty() ? 0 : Cursor.decode(cursor, 1).getLong(0);
+            return Cursor.toResponse(
+                    userService.getAll(afterId, size),
+                    size,
+                    user -> Cursor.encode(user.getId())
+            );
+        }
+
+        return ResponseEntity.ok(userService.getAll(PageRequest.of(from, size, Sort.by("id"))));
+    }
+
+    @GetMapping("/export")
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        userService.export(new NdjsonWriter<>(objectMapper, response.getOutputStream()));
+    }
+
+    @PostMapping("/bulk")
+    public void importAll(
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        bulkImporter.run(
+                request.getInputStream(),
+                contentEncoding,
+                UserDto.class,
+                userService::importAll,
+                new NdjsonWriter<>(objectMapper, response.getOutputStream())
+        );
     }
 
     @DeleteMapping("/{userId}")
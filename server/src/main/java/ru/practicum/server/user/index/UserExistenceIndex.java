@@ -0,0 +1,160 @@
+package ru.practicum.server.user.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+@Slf4j
+@Component
+public class UserExistenceIndex {
+    private static final int WARM_UP_BATCH_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LongBloomFilter knownIds;
+    private final Map<Long, Boolean> confirmedIds;
+    private volatile boolean complete;
+
+    public UserExistenceIndex(
+            UserRepository userRepository,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${shareit.user.exists.expected-users:1000000}") long expectedUsers,
+            @Value("${shareit.user.exists.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${shareit.user.exists.cache-size:10000}") int cacheSize
+    ) {
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.knownIds = new LongBloomFilter(expectedUsers, falsePositiveRate);
+        this.confirmedIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public boolean exists(long userId) {
+        return exists(userId, userRepository::existsById);
+    }
+
+    public boolean exists(long userId, LongPredicate loader) {
+        if (complete && !knownIds.mightContain(userId)) return false;
+        if (isConfirmed(userId)) return true;
+
+        boolean exists = loader.test(userId);
+        if (exists) confirm(userId);
+
+        return exists;
+    }
+
+    public void put(long userId) {
+        knownIds.put(userId);
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, new InsertListener(false));
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, new InsertListener(true));
+        registry.appendListeners(EventType.POST_DELETE, new DeleteListener());
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, new DeleteListener());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long afterId = 0;
+        int count = 0;
+        List<Long> batch;
+        do {
+            batch = userRepository.findIdsAfter(afterId, PageRequest.of(0, WARM_UP_BATCH_SIZE));
+            for (long id : batch) {
+                knownIds.put(id);
+                afterId = id;
+            }
+            count += batch.size();
+        } while (batch.size() == WARM_UP_BATCH_SIZE);
+        complete = true;
+        log.info("User existence index loaded with {} users", count);
+    }
+
+    private boolean isConfirmed(long userId) {
+        synchronized (confirmedIds) {
+            return confirmedIds.get(userId) != null;
+        }
+    }
+
+    private void confirm(long userId) {
+        synchronized (confirmedIds) {
+            confirmedIds.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private void forget(long userId) {
+        synchronized (confirmedIds) {
+            confirmedIds.remove(userId);
+        }
+    }
+
+    private static boolean isUser(EntityPersister persister) {
+        return persister.getMappedClass() == User.class;
+    }
+
+    private class InsertListener implements PostInsertEventListener {
+        private final boolean committed;
+
+        InsertListener(boolean committed) {
+            this.committed = committed;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (!(event.getEntity() instanceof User)) return;
+
+            long userId = ((User) event.getEntity()).getId();
+            if (committed) {
+                confirm(userId);
+            } else {
+                knownIds.put(userId);
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return committed && isUser(persister);
+        }
+    }
+
+    private class DeleteListener implements PostDeleteEventListener {
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof User) forget(((User) event.getEntity()).getId());
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return isUser(persister);
+        }
+    }
+}
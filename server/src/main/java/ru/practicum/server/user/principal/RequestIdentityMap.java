@@ -0,0 +1,52 @@
+package ru.practicum.server.user.principal;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class RequestIdentityMap {
+    private static final String ATTRIBUTE = RequestIdentityMap.class.getName();
+
+    private RequestIdentityMap() {
+    }
+
+    public static <T> T computeIfAbsent(Class<T> type, long id, Supplier<T> loader) {
+        Map<String, Object> entries = entries(true);
+        if (entries == null) return loader.get();
+
+        String key = key(type, id);
+        Object entry = entries.get(key);
+        if (entry == null) {
+            entry = loader.get();
+            entries.put(key, entry);
+        }
+
+        return type.cast(entry);
+    }
+
+    public static void evict(Class<?> type, long id) {
+        Map<String, Object> entries = entries(false);
+        if (entries != null) entries.remove(key(type, id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> entries(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return null;
+
+        Map<String, Object> entries = (Map<String, Object>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (entries == null && create) {
+            entries = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, entries, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return entries;
+    }
+
+    private static String key(Class<?> type, long id) {
+        return type.getName() + "#" + id;
+    }
+}
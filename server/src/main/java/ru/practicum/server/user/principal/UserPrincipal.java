@@ -0,0 +1,10 @@
+package ru.practicum.server.user.principal;
+
+import lombok.Value;
+
+@Value
+public class UserPrincipal {
+    public static final String HEADER = "X-Sharer-User-Id";
+
+    long id;
+}
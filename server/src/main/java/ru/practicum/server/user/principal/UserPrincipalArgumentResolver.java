@@ -0,0 +1,52 @@
+package ru.practicum.server.user.principal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.server.user.service.UserService;
+
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String ATTRIBUTE = UserPrincipal.class.getName();
+
+    private final UserService userService;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == UserPrincipal.class;
+    }
+
+    @Override
+    public UserPrincipal resolveArgument(
+            MethodParameter parameter,
+            ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory
+    ) throws ServletRequestBindingException {
+        UserPrincipal resolved = (UserPrincipal) webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) return resolved;
+
+        String header = webRequest.getHeader(UserPrincipal.HEADER);
+        if (header == null) throw new MissingRequestHeaderException(UserPrincipal.HEADER, parameter);
+
+        long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletRequestBindingException("Invalid " + UserPrincipal.HEADER + " header: " + header);
+        }
+        userService.checkExists(userId);
+
+        UserPrincipal principal = new UserPrincipal(userId);
+        webRequest.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.server.user.repository;
+
+import ru.practicum.server.user.model.User;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    void insertAll(List<User> users);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.server.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import ru.practicum.server.bulk.JdbcBatch;
+import ru.practicum.server.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private static final String INSERT = "INSERT INTO users (name, email) VALUES (?, ?)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) return;
+
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, JdbcBatch.ID_COLUMN)) {
+                for (User user : users) {
+                    statement.setString(1, user.getName());
+                    statement.setString(2, user.getEmail());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                JdbcBatch.readGeneratedIds(statement, users, User::setId);
+            }
+        });
+    }
+}
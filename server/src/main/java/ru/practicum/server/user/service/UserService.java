@@ -1,8 +1,12 @@
 package ru.practicum.server.user.service;
 
+import org.springframework.data.domain.Pageable;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowResultDto;
 import ru.practicum.server.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto create(UserDto userDto);
@@ -11,7 +15,15 @@ public interface UserService {
 
     UserDto get(long userId);
 
-    List<UserDto> getAll();
+    void checkExists(long userId);
+
+    List<UserDto> getAll(Pageable pageable);
+
+    List<UserDto> getAll(long afterId, int size);
+
+    void export(Consumer<UserDto> consumer);
+
+    List<BulkRowResultDto> importAll(List<BulkRow<UserDto>> rows);
 
     boolean delete(long userId);
 }
@@ -2,15 +2,30 @@ package ru.practicum.server.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.exception.UserNotFoundException;
+import ru.practicum.server.user.index.UserExistenceIndex;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.RequestIdentityMap;
 import ru.practicum.server.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -18,6 +33,8 @@ import java.util.List;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final UserExistenceIndex userExistenceIndex;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -32,6 +49,7 @@ public class UserServiceImpl implements UserService {
         UserDto oldUserDto = get(userId);
         checkDataForUpdate(userDto, oldUserDto);
         User user = userRepository.save(UserMapper.toUser(userDto));
+        RequestIdentityMap.evict(UserDto.class, userId);
         log.info("Update User with ID:{}", userId);
         return UserMapper.toUserDto(user);
     }
@@ -39,29 +57,106 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = true)
     @Override
     public UserDto get(long userId) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException("User with ID:" + userId + " not found"));
-        log.info("Get User with ID:{}", userId);
-        return UserMapper.toUserDto(user);
+        UserDto userDto = find(userId);
+        if (userDto == null) throw new UserNotFoundException("User with ID:" + userId + " not found");
+        return userDto;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void checkExists(long userId) {
+        if (!userExistenceIndex.exists(userId, id -> find(id) != null)) {
+            throw new UserNotFoundException("User with ID:" + userId + " not found");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getAll(Pageable pageable) {
+        log.info("Get Users page {}", pageable);
+        return UserMapper.listToUserDto(userRepository.findAllBy(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getAll(long afterId, int size) {
+        log.info("Get Users after ID:{}", afterId);
+        return UserMapper.listToUserDto(userRepository.findAllByIdGreaterThan(
+                afterId,
+                PageRequest.of(0, size, Sort.by("id"))
+        ));
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<UserDto> getAll() {
-        log.info("Get All Users");
-        return UserMapper.listToUserDto(userRepository.findAll());
+    public void export(Consumer<UserDto> consumer) {
+        log.info("Export all Users");
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                consumer.accept(UserMapper.toUserDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    public List<BulkRowResultDto> importAll(List<BulkRow<UserDto>> rows) {
+        Set<String> emails = rows.stream()
+                .map(row -> row.getValue().getEmail())
+                .filter(email -> email != null && !email.isBlank())
+                .collect(Collectors.toSet());
+        Set<String> registered = emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findEmailsIn(emails));
+        Set<String> seen = new HashSet<>();
+
+        List<BulkRowResultDto> results = new ArrayList<>(rows.size());
+        List<BulkRow<UserDto>> accepted = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (BulkRow<UserDto> row : rows) {
+            UserDto userDto = row.getValue();
+            if (isBlank(userDto.getName()) || isBlank(userDto.getEmail())) {
+                results.add(row.rejected(BulkRowOutcome.INVALID, "name and email are required"));
+            } else if (registered.contains(userDto.getEmail()) || !seen.add(userDto.getEmail())) {
+                results.add(row.rejected(BulkRowOutcome.DUPLICATE, "Email " + userDto.getEmail() + " is already used"));
+            } else {
+                User user = UserMapper.toUser(userDto);
+                user.setId(0);
+                accepted.add(row);
+                users.add(user);
+            }
+        }
+
+        userRepository.insertAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            long userId = users.get(i).getId();
+            userExistenceIndex.put(userId);
+            results.add(accepted.get(i).created(userId));
+        }
+        log.info("Import {} of {} Users", users.size(), rows.size());
+        return results;
     }
 
     @Override
     public boolean delete(long userId) {
         if (userRepository.existsById(userId)) {
             userRepository.deleteById(userId);
+            RequestIdentityMap.evict(UserDto.class, userId);
             log.info("Delete User with ID:{}", userId);
             return true;
         }
         return false;
     }
 
+    private UserDto find(long userId) {
+        return RequestIdentityMap.computeIfAbsent(UserDto.class, userId, () -> {
+            log.info("Get User with ID:{}", userId);
+            return userRepository.findById(userId).map(UserMapper::toUserDto).orElse(null);
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     private void checkDataForUpdate(UserDto updateUser, UserDto oldUserDto) {
         if (updateUser.getName() == null) updateUser.setName(oldUserDto.getName());
         if (updateUser.getEmail() == null) updateUser.setEmail(oldUserDto.getEmail());
@@ -0,0 +1,38 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (lower(description) gin_trgm_ops);
+
+-- bookings is partitioned by LIST on archived rather than by RANGE on end_date.
+-- The archive horizon moves every night. With range bounds, moving it means detaching and
+-- re-attaching partitions under an ACCESS EXCLUSIVE lock on bookings. With the flag,
+-- BookingArchiveJob moves rows between partitions with plain batched UPDATEs while
+-- bookings stays online. Hot queries filter on archived = false and prune to bookings_recent.
+-- PAST and ALL lists have no lower bound on end_date, so range partitions could not be pruned for them.
+ALTER SEQUENCE bookings_id_seq OWNED BY NONE;
+DROP TABLE bookings;
+
+CREATE TABLE bookings (
+    id         BIGINT  NOT NULL DEFAULT nextval('bookings_id_seq'),
+    archived   BOOLEAN NOT NULL DEFAULT false,
+    end_date   TIMESTAMP,
+    start_date TIMESTAMP,
+    status     VARCHAR(255),
+    booker_id  BIGINT REFERENCES users (id),
+    item_id    BIGINT REFERENCES items (id),
+    PRIMARY KEY (id, archived)
+) PARTITION BY LIST (archived);
+
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+
+CREATE TABLE bookings_recent PARTITION OF bookings FOR VALUES IN (false);
+CREATE TABLE bookings_archive PARTITION OF bookings FOR VALUES IN (true);
+
+CREATE INDEX bookings_booker_id_start_date_idx ON bookings (booker_id, start_date, id);
+CREATE INDEX bookings_item_id_start_date_idx ON bookings (item_id, start_date, id);
+CREATE INDEX bookings_item_id_start_date_end_date_idx ON bookings (item_id, start_date, end_date);
+CREATE INDEX bookings_archived_end_date_idx ON bookings (archived, end_date);
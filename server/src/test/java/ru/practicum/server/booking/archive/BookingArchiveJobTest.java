@@ -0,0 +1,62 @@
+package ru.practicum.server.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiveJobTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private BookingArchiveJob bookingArchiveJob;
+
+    @BeforeEach
+    void setUp() {
+        bookingArchiveJob = new BookingArchiveJob(
+                bookingRepository,
+                new TransactionTemplate(transactionManager),
+                Duration.ofDays(180),
+                2
+        );
+    }
+
+    @Test
+    void archive_whenBatchFull_thenRepeatedUntilPartialBatch() {
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(bookingRepository.archiveEndedBefore(before, 2)).thenReturn(2, 2, 1);
+
+        assertEquals(5, bookingArchiveJob.archive(before));
+        verify(bookingRepository, times(3)).archiveEndedBefore(before, 2);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void run_whenInvoked_thenArchivedBeforeHorizon() {
+        LocalDateTime horizon = LocalDateTime.now().minusDays(180);
+        when(bookingRepository.archiveEndedBefore(any(), anyInt())).thenReturn(0);
+
+        bookingArchiveJob.run();
+
+        verify(bookingRepository).archiveEndedBefore(
+                argThat(before -> !before.isBefore(horizon)), eq(2));
+    }
+}
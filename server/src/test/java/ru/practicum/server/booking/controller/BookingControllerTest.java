@@ -5,14 +5,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.enums.BookingState;
 import ru.practicum.server.booking.service.BookingServiceImpl;
+import ru.practicum.server.pagination.Cursor;
+import ru.practicum.server.pagination.OffsetPageRequest;
+import ru.practicum.server.pagination.exception.InvalidCursorException;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,9 +36,9 @@ class BookingControllerTest {
     void create_whenInvoked_thenResponseStatusOkWithBookingDtoInBody() {
         int userId = 1;
         BookingDto expectedBookingDto = new BookingDto();
-        when(bookingService.save(userId, new BookingDto())).thenReturn(expectedBookingDto);
+        when(bookingService.save(new UserPrincipal(userId), new BookingDto())).thenReturn(expectedBookingDto);
 
-        ResponseEntity<BookingDto> response = bookingController.create(userId, expectedBookingDto);
+        ResponseEntity<BookingDto> response = bookingController.create(new UserPrincipal(userId), expectedBookingDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedBookingDto, response.getBody());
@@ -42,9 +49,9 @@ class BookingControllerTest {
         int userId = 1;
         int bookingId = 1;
         BookingDto expectedBookingDto = new BookingDto();
-        when(bookingService.get(userId, bookingId)).thenReturn(expectedBookingDto);
+        when(bookingService.get(new UserPrincipal(userId), bookingId)).thenReturn(expectedBookingDto);
 
-        ResponseEntity<BookingDto> response = bookingController.get(userId, bookingId);
+        ResponseEntity<BookingDto> response = bookingController.get(new UserPrincipal(userId), bookingId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedBookingDto, response.getBody());
@@ -54,13 +61,13 @@ class BookingControllerTest {
     void getAll_whenInvoked_thenResponseStatusOkWithCollectionBookingDtoInBody() {
         int userId = 1;
         String state = "ALL";
-        PageRequest pageable = PageRequest.of(0, 10, Sort.by("start").descending());
+        OffsetPageRequest pageable = OffsetPageRequest.of(0, 10, Sort.by("start", "id").descending());
         List<BookingDto> expectedBookingDtoList = List.of(new BookingDto());
-        when(bookingService.getAll(userId, BookingState.ALL, false, pageable))
+        when(bookingService.getAll(new UserPrincipal(userId), BookingState.ALL, false, false, pageable))
                 .thenReturn(expectedBookingDtoList);
 
         ResponseEntity<List<BookingDto>> response
-                = bookingController.getAll(userId, state, 0, 10, false);
+                = bookingController.getAll(new UserPrincipal(userId), state, 0, 10, false, false, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedBookingDtoList, response.getBody());
@@ -70,27 +77,80 @@ class BookingControllerTest {
     void getAllOwner() {
         int userId = 1;
         String state = "ALL";
-        PageRequest pageable = PageRequest.of(0, 10, Sort.by("start").descending());
+        OffsetPageRequest pageable = OffsetPageRequest.of(0, 10, Sort.by("start", "id").descending());
         List<BookingDto> expectedBookingDtoList = List.of(new BookingDto());
-        when(bookingService.getAll(userId, BookingState.ALL, true, pageable))
+        when(bookingService.getAll(new UserPrincipal(userId), BookingState.ALL, true, false, pageable))
                 .thenReturn(expectedBookingDtoList);
 
         ResponseEntity<List<BookingDto>> response
-                = bookingController.getAll(userId, state, 0, 10, true);
+                = bookingController.getAll(new UserPrincipal(userId), state, 0, 10, true, false, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedBookingDtoList, response.getBody());
     }
 
+    @Test
+    void getAll_whenCursorGiven_thenContinueAfterCursorKey() {
+        int userId = 1;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(3);
+        bookingDto.setStart(start.minusDays(1));
+        List<BookingDto> expectedBookingDtoList = List.of(bookingDto);
+        when(bookingService.getAll(new UserPrincipal(userId), BookingState.ALL, true, false, start, 5, 1))
+                .thenReturn(expectedBookingDtoList);
+
+        ResponseEntity<List<BookingDto>> response
+                = bookingController.getAll(new UserPrincipal(userId), "ALL", 0, 1, true, false, Cursor.encode(start, 5L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedBookingDtoList, response.getBody());
+        assertEquals(
+                Cursor.encode(start.minusDays(1), 3L),
+                response.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER)
+        );
+    }
+
+    @Test
+    void getAll_whenCursorMalformed_thenInvalidCursorException() {
+        String cursor = Cursor.encode("yesterday", 5L);
+
+        assertThrows(InvalidCursorException.class,
+                () -> bookingController.getAll(new UserPrincipal(1), "ALL", 0, 10, false, false, cursor));
+        assertThrows(InvalidCursorException.class,
+                () -> bookingController.getAll(new UserPrincipal(1), "ALL", 0, 10, false, false, "%%%"));
+    }
+
+    @Test
+    void stream_whenInvoked_thenEmitterFromService() {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingService.subscribe(new UserPrincipal(1))).thenReturn(emitter);
+
+        assertSame(emitter, bookingController.stream(new UserPrincipal(1)));
+    }
+
+    @Test
+    void approveBookings_whenInvoked_thenResponseStatusOkWithResultsInBody() {
+        long userId = 1;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto());
+        List<BookingDecisionResultDto> expectedResults = List.of(new BookingDecisionResultDto());
+        when(bookingService.approveBookings(new UserPrincipal(userId), decisions)).thenReturn(expectedResults);
+
+        ResponseEntity<List<BookingDecisionResultDto>> response = bookingController.approveBookings(new UserPrincipal(userId), decisions);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedResults, response.getBody());
+    }
+
     @Test
     void approveBooking_whenInvoked_thenResponseStatusOkWithBookingDtoInBody() {
         int userId = 1;
         int bookingId = 1;
         BookingDto expectedBookingDto = new BookingDto();
-        when(bookingService.approveBooking(userId, bookingId, true))
+        when(bookingService.approveBooking(new UserPrincipal(userId), bookingId, true))
                 .thenReturn(expectedBookingDto);
 
-        ResponseEntity<BookingDto> response = bookingController.approveBooking(userId, bookingId, true);
+        ResponseEntity<BookingDto> response = bookingController.approveBooking(new UserPrincipal(userId), bookingId, true);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedBookingDto, response.getBody());
@@ -0,0 +1,280 @@
+package ru.practicum.server.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.booking.dto.BookingIntervalView;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.exception.BookingTimeConflictException;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.AvailabilityIntervalDto;
+import ru.practicum.server.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, 1);
+    }
+
+    @Test
+    void reserve_whenOverlapsStoredBooking_thenBookingTimeConflictExceptionThrow() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any()))
+                .thenReturn(List.of(getView(5, START, START.plusHours(2))));
+
+        assertThrows(BookingTimeConflictException.class,
+                () -> bookingIntervalIndex.reserve(1, START.plusHours(1), START.plusHours(3), this::fail));
+        verify(bookingRepository, times(1)).findIntervals(anyLong(), any(), any());
+    }
+
+    @Test
+    void reserve_whenFree_thenSavedAndFollowingOverlapRejected() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any())).thenReturn(List.of());
+
+        Booking booking = bookingIntervalIndex.reserve(1, START, START.plusHours(2),
+                () -> getBooking(7, START, BookingStatus.WAITING));
+
+        assertEquals(7, booking.getId());
+        assertThrows(BookingTimeConflictException.class,
+                () -> bookingIntervalIndex.reserve(1, START.plusHours(1), START.plusHours(3), this::fail));
+    }
+
+    @Test
+    void update_whenRejected_thenTimeIsFree() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any()))
+                .thenReturn(List.of(getView(5, START, START.plusHours(2))));
+        assertThrows(BookingTimeConflictException.class,
+                () -> bookingIntervalIndex.reserve(1, START, START.plusHours(1), this::fail));
+
+        bookingIntervalIndex.update(getBooking(5, START, BookingStatus.REJECTED));
+
+        Booking booking = bookingIntervalIndex.reserve(1, START, START.plusHours(1),
+                () -> getBooking(6, START, BookingStatus.WAITING));
+        assertEquals(6, booking.getId());
+    }
+
+    @Test
+    void reserveAll_whenRowsOverlapEachOther_thenFirstReservedAndSavedWithRealIds() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any())).thenReturn(List.of());
+        List<Booking> bookings = List.of(
+                getBooking(0, START, BookingStatus.WAITING),
+                getBooking(0, START.plusHours(1), BookingStatus.WAITING),
+                getBooking(0, START.plusHours(3), BookingStatus.WAITING)
+        );
+
+        boolean[] reserved = bookingIntervalIndex.reserveAll(bookings, accepted -> {
+            assertEquals(List.of(bookings.get(0), bookings.get(2)), accepted);
+            accepted.get(0).setId(7);
+            accepted.get(1).setId(8);
+        });
+
+        assertArrayEquals(new boolean[]{true, false, true}, reserved);
+        assertThrows(BookingTimeConflictException.class,
+                () -> bookingIntervalIndex.reserve(1, START.plusHours(4), START.plusHours(6), this::fail));
+        bookingIntervalIndex.update(getBooking(8, START.plusHours(3), BookingStatus.REJECTED));
+        assertEquals(9, bookingIntervalIndex.reserve(1, START.plusHours(4), START.plusHours(6),
+                () -> getBooking(9, START.plusHours(4), BookingStatus.WAITING)).getId());
+    }
+
+    @Test
+    void reserveAll_whenSaverFails_thenTimeIsFree() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any())).thenReturn(List.of());
+        List<Booking> bookings = List.of(getBooking(0, START, BookingStatus.WAITING));
+
+        assertThrows(IllegalStateException.class, () -> bookingIntervalIndex.reserveAll(bookings, accepted -> {
+            throw new IllegalStateException("insert failed");
+        }));
+
+        Booking booking = bookingIntervalIndex.reserve(1, START, START.plusHours(1),
+                () -> getBooking(6, START, BookingStatus.WAITING));
+        assertEquals(6, booking.getId());
+    }
+
+    @Test
+    void getOccupied_whenBookingsOverlapAndStickOut_thenMergedAndClipped() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any())).thenReturn(List.of(
+                getView(1, START.minusHours(1), START.plusHours(1)),
+                getView(2, START.plusHours(1), START.plusHours(2)),
+                getView(3, START.plusHours(4), START.plusHours(6)),
+                getView(4, START.plusHours(5), START.plusHours(7)),
+                getView(5, START.plusHours(9), START.plusHours(12))
+        ));
+
+        List<AvailabilityIntervalDto> occupied = bookingIntervalIndex.getOccupied(1, START, START.plusHours(10));
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(START, START.plusHours(2)),
+                new AvailabilityIntervalDto(START.plusHours(4), START.plusHours(7)),
+                new AvailabilityIntervalDto(START.plusHours(9), START.plusHours(10))
+        ), occupied);
+    }
+
+    @Test
+    void getOccupied_whenMoreItemsThanMaxItems_thenEldestTreeReloaded() {
+        when(bookingRepository.findIntervals(anyLong(), any(), any())).thenReturn(List.of());
+
+        bookingIntervalIndex.getOccupied(1, START, START.plusHours(1));
+        bookingIntervalIndex.getOccupied(1, START, START.plusHours(1));
+        bookingIntervalIndex.getOccupied(2, START, START.plusHours(1));
+        bookingIntervalIndex.getOccupied(1, START, START.plusHours(1));
+
+        verify(bookingRepository, times(2)).findIntervals(eq(1L), any(), any());
+        verify(bookingRepository, times(1)).findIntervals(eq(2L), any(), any());
+    }
+
+    @Test
+    void reserve_whenTransactionPending_thenTreeNotEvicted() {
+        when(bookingRepository.findIntervals(anyLong(), any(), any())).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.reserve(1, START, START.plusHours(2),
+                    () -> getBooking(7, START, BookingStatus.WAITING));
+            bookingIntervalIndex.getOccupied(2, START, START.plusHours(1));
+
+            assertThrows(BookingTimeConflictException.class,
+                    () -> bookingIntervalIndex.reserve(1, START.plusHours(1), START.plusHours(3), this::fail));
+            verify(bookingRepository, times(1)).findIntervals(eq(1L), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        bookingIntervalIndex.getOccupied(2, START, START.plusHours(1));
+        bookingIntervalIndex.getOccupied(1, START, START.plusHours(1));
+
+        verify(bookingRepository, times(2)).findIntervals(eq(1L), any(), any());
+    }
+
+    @Test
+    void reserve_whenTreeEvictedWhileAnotherLoadReads_thenCommittedReservationKept() throws InterruptedException {
+        List<BookingIntervalView> committed = new CopyOnWriteArrayList<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(bookingRepository.findIntervals(anyLong(), any(), any())).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) != 1L) return List.of();
+
+            List<BookingIntervalView> snapshot = List.copyOf(committed);
+            if (first.compareAndSet(true, false)) {
+                loading.countDown();
+                resume.await();
+            }
+            return snapshot;
+        });
+
+        Thread reader = new Thread(() -> bookingIntervalIndex.getOccupied(1, START, START.plusHours(1)));
+        reader.start();
+        loading.await();
+        Thread writer = new Thread(() -> bookingIntervalIndex.reserve(1, START, START.plusHours(2), () -> {
+            committed.add(getView(7, START, START.plusHours(2)));
+            return getBooking(7, START, BookingStatus.WAITING);
+        }));
+        writer.start();
+        while (writer.isAlive() && writer.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+        bookingIntervalIndex.getOccupied(2, START, START.plusHours(1));
+        resume.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        assertEquals(1, committed.size());
+        assertThrows(BookingTimeConflictException.class,
+                () -> bookingIntervalIndex.reserve(1, START.plusHours(1), START.plusHours(3), this::fail));
+    }
+
+    @Test
+    void getOccupied_whenReservationPending_thenOccupiedUntilRolledBack() {
+        when(bookingRepository.findIntervals(eq(1L), any(), any())).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.reserve(1, START, START.plusHours(2),
+                    () -> getBooking(7, START, BookingStatus.WAITING));
+
+            assertEquals(List.of(new AvailabilityIntervalDto(START, START.plusHours(2))),
+                    bookingIntervalIndex.getOccupied(1, START, START.plusHours(3)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(), bookingIntervalIndex.getOccupied(1, START, START.plusHours(3)));
+    }
+
+    @Test
+    void getOccupied_whenBookingEnded_thenPruned() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findIntervals(eq(1L), any(), any()))
+                .thenReturn(List.of(getView(5, now.minusHours(2), now.minusHours(1))));
+
+        List<AvailabilityIntervalDto> occupied = bookingIntervalIndex.getOccupied(1, now.minusHours(3), now);
+
+        assertEquals(List.of(), occupied);
+    }
+
+    private Booking fail() {
+        throw new AssertionError("Booking must not be saved");
+    }
+
+    private Booking getBooking(long id, LocalDateTime start, BookingStatus status) {
+        Item item = new Item();
+        item.setId(1);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(2));
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private BookingIntervalView getView(long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingIntervalView() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
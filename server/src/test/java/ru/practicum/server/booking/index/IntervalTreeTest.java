@@ -0,0 +1,148 @@
+package ru.practicum.server.booking.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Comparator<LocalDateTime[]> INTERVAL_ORDER = Comparator
+            .<LocalDateTime[], LocalDateTime>comparing(interval -> interval[0])
+            .thenComparing(interval -> interval[1]);
+
+    @Test
+    void overlaps_whenIntervalsTouch_thenNoOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, BASE, BASE.plusHours(2));
+
+        assertFalse(tree.overlaps(BASE.plusHours(2), BASE.plusHours(3)));
+        assertFalse(tree.overlaps(BASE.minusHours(1), BASE));
+        assertTrue(tree.overlaps(BASE.plusHours(1), BASE.plusHours(3)));
+        assertTrue(tree.overlaps(BASE.minusHours(1), BASE.plusHours(5)));
+    }
+
+    @Test
+    void remove_whenIntervalRemoved_thenTimeIsFree() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, BASE, BASE.plusHours(2));
+        tree.insert(2, BASE.plusHours(5), BASE.plusHours(6));
+
+        tree.remove(1, BASE);
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(BASE, BASE.plusHours(2)));
+        assertTrue(tree.overlaps(BASE.plusHours(4), BASE.plusHours(7)));
+    }
+
+    @Test
+    void removeEndedBefore_whenIntervalsEnded_thenOnlyRunningAndFutureKept() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, BASE, BASE.plusHours(2));
+        tree.insert(2, BASE.plusHours(1), BASE.plusHours(10));
+        tree.insert(3, BASE.plusHours(3), BASE.plusHours(4));
+        tree.insert(4, BASE.plusHours(6), BASE.plusHours(7));
+
+        tree.removeEndedBefore(BASE.plusHours(5));
+
+        assertEquals(2, tree.size());
+        assertFalse(tree.overlaps(BASE, BASE.plusHours(1)));
+        assertTrue(tree.overlaps(BASE.plusHours(8), BASE.plusHours(9)));
+        assertTrue(tree.overlaps(BASE.plusHours(6), BASE.plusHours(7)));
+    }
+
+    @Test
+    void removeEndedBefore_whenRandomIntervals_thenSameAsLinearScan() {
+        Random random = new Random(11);
+        IntervalTree tree = new IntervalTree();
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(100_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(2000));
+            tree.insert(id, start, end);
+            intervals.add(new LocalDateTime[]{start, end});
+        }
+
+        for (int minutes = 0; minutes <= 110_000; minutes += 10_000) {
+            LocalDateTime time = BASE.plusMinutes(minutes);
+            tree.removeEndedBefore(time);
+            intervals.removeIf(interval -> !interval[1].isAfter(time));
+
+            assertEquals(intervals.size(), tree.size());
+            for (LocalDateTime[] interval : intervals) {
+                assertTrue(tree.overlaps(interval[0], interval[1]));
+            }
+        }
+    }
+
+    @Test
+    void overlaps_whenRandomIntervals_thenSameAsLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(100_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(2000));
+            tree.insert(id, start, end);
+            intervals.add(new LocalDateTime[]{start, end});
+        }
+        for (int id = 0; id < 2000; id += 3) {
+            tree.remove(id, intervals.get(id)[0]);
+            intervals.set(id, null);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(110_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(200));
+            boolean expected = intervals.stream()
+                    .anyMatch(interval -> interval != null
+                            && interval[0].isBefore(end)
+                            && start.isBefore(interval[1]));
+
+            assertEquals(expected, tree.overlaps(start, end));
+        }
+    }
+
+    @Test
+    void forEachOverlapping_whenRandomIntervals_thenSameAsLinearScanInStartOrder() {
+        Random random = new Random(7);
+        IntervalTree tree = new IntervalTree();
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 1000; id++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(50_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(2000));
+            tree.insert(id, start, end);
+            intervals.add(new LocalDateTime[]{start, end});
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(55_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(5000));
+            List<LocalDateTime[]> expected = intervals.stream()
+                    .filter(interval -> interval[0].isBefore(end) && start.isBefore(interval[1]))
+                    .sorted(INTERVAL_ORDER)
+                    .collect(Collectors.toList());
+            List<LocalDateTime[]> actual = new ArrayList<>();
+
+            tree.forEachOverlapping(start, end, (from, to) -> actual.add(new LocalDateTime[]{from, to}));
+
+            for (int j = 1; j < actual.size(); j++) {
+                assertFalse(actual.get(j)[0].isBefore(actual.get(j - 1)[0]));
+            }
+            actual.sort(INTERVAL_ORDER);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertArrayEquals(expected.get(j), actual.get(j));
+            }
+        }
+    }
+}
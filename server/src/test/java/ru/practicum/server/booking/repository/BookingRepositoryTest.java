@@ -5,17 +5,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.enums.BookingState;
 import ru.practicum.server.booking.enums.BookingStatus;
 import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.item.dto.BookingItemView;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.pagination.OffsetPageRequest;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +43,7 @@ class BookingRepositoryTest {
     private User user2;
     private Item item1;
     private Booking booking1;
+    private Booking booking2;
 
     @BeforeEach
     void setUp() {
@@ -63,7 +74,7 @@ class BookingRepositoryTest {
         booking1.setEnd(LocalDateTime.now().plusSeconds(300));
         booking1.setItem(item1);
 
-        Booking booking2 = new Booking();
+        booking2 = new Booking();
         booking2.setBooker(user2);
         booking2.setStatus(BookingStatus.WAITING);
         booking2.setStart(LocalDateTime.now().plusSeconds(100));
@@ -79,39 +90,45 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByBookerId() {
+    void findSlice_whenBookerAndStateAll() {
         long bookerId = user1.getId();
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        Page<Booking> pages = bookingRepository.findAllByBookerId(bookerId, PageRequest.of(0, 10));
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(bookerId, false, BookingState.ALL, LocalDateTime.now(), false),
+                PageRequest.of(0, 10)
+        );
 
         expectedSize = 1;
-        actualSize = pages.getContent().size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(pages);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByItemOwnerId() {
+    void findSlice_whenOwnerAndStateAll() {
         long ownerId = user2.getId();
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        Page<Booking> pages = bookingRepository.findAllByItemOwnerId(ownerId, PageRequest.of(0, 10));
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(ownerId, true, BookingState.ALL, LocalDateTime.now(), false),
+                PageRequest.of(0, 10)
+        );
 
         expectedSize = 1;
-        actualSize = pages.getContent().size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(pages);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByBookerIdAndStartBeforeAndEndAfter() {
+    void findSlice_whenBookerAndStateCurrent() {
         booking1.setStart(LocalDateTime.now().minusSeconds(100));
         bookingRepository.save(booking1);
 
@@ -122,22 +139,19 @@ class BookingRepositoryTest {
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository
-                .findAllByBookerIdAndStartBeforeAndEndAfter(
-                        bookerId,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        PageRequest.of(0, 10)
-                );
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(bookerId, false, BookingState.CURRENT, LocalDateTime.now(), false),
+                PageRequest.of(0, 10)
+        );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartBeforeAndEndAfter() {
+    void findSlice_whenOwnerAndStateCurrent() {
         booking1.setStart(LocalDateTime.now().minusSeconds(100));
         bookingRepository.save(booking1);
 
@@ -148,62 +162,57 @@ class BookingRepositoryTest {
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository
-                .findAllByItemOwnerIdAndStartBeforeAndEndAfter(
-                        ownerId,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        PageRequest.of(0, 10)
-                );
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(ownerId, true, BookingState.CURRENT, LocalDateTime.now(), false),
+                PageRequest.of(0, 10)
+        );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByBookerIdAndStartAfter() {
+    void findSlice_whenBookerAndStateFuture() {
         long bookerId = user1.getId();
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndStartAfter(
-                bookerId,
-                LocalDateTime.now(),
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(bookerId, false, BookingState.FUTURE, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartAfter() {
+    void findSlice_whenOwnerAndStateFuture() {
         long ownerId = user2.getId();
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByItemOwnerIdAndStartAfter(
-                ownerId,
-                LocalDateTime.now(),
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(ownerId, true, BookingState.FUTURE, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByBookerIdAndEndBefore() {
+    void findSlice_whenBookerAndStatePast() {
         booking1.setStart(LocalDateTime.now().minusSeconds(100));
         booking1.setEnd(LocalDateTime.now().minusSeconds(10));
         bookingRepository.save(booking1);
@@ -214,20 +223,19 @@ class BookingRepositoryTest {
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndEndBefore(
-                bookerId,
-                LocalDateTime.now(),
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(bookerId, false, BookingState.PAST, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByItemOwnerIdAndEndBefore() {
+    void findSlice_whenOwnerAndStatePast() {
         booking1.setStart(LocalDateTime.now().minusSeconds(100));
         booking1.setEnd(LocalDateTime.now().minusSeconds(10));
         bookingRepository.save(booking1);
@@ -238,68 +246,63 @@ class BookingRepositoryTest {
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByItemOwnerIdAndEndBefore(
-                ownerId,
-                LocalDateTime.now(),
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(ownerId, true, BookingState.PAST, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStatus() {
-        booking1.setStatus(BookingStatus.APPROVED);
+    void findSlice_whenOwnerAndStateRejected() {
+        booking1.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking1);
 
         long ownerId = user2.getId();
-        BookingStatus status = BookingStatus.APPROVED;
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(
-                ownerId,
-                status,
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(ownerId, true, BookingState.REJECTED, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByBookerIdAndStatus() {
-        booking1.setStatus(BookingStatus.APPROVED);
+    void findSlice_whenBookerAndStateRejected() {
+        booking1.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking1);
 
         long bookerId = user1.getId();
-        BookingStatus status = BookingStatus.APPROVED;
         List<Booking> bookings = bookingRepository.findAll();
         int expectedSize = 2;
         int actualSize = bookings.size();
         assertEquals(expectedSize, actualSize);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndStatus(
-                bookerId,
-                status,
+        Slice<Booking> bookingList = bookingRepository.findSlice(
+                BookingSpecifications.of(bookerId, false, BookingState.REJECTED, LocalDateTime.now(), false),
                 PageRequest.of(0, 10)
         );
 
         expectedSize = 1;
-        actualSize = bookingList.size();
+        actualSize = bookingList.getContent().size();
         assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertThat(booking1).isIn(bookingList.getContent());
     }
 
     @Test
-    void findAllByBookerIdAndEndBeforeAndStatus() {
+    void existsByBookerIdAndItemIdAndStatusAndEndBefore() {
         booking1.setStatus(BookingStatus.APPROVED);
         booking1.setStart(LocalDateTime.now().minusSeconds(100));
         booking1.setEnd(LocalDateTime.now().minusSeconds(10));
@@ -307,47 +310,270 @@ class BookingRepositoryTest {
 
         long bookerId = user1.getId();
         BookingStatus status = BookingStatus.APPROVED;
-        List<Booking> bookings = bookingRepository.findAll();
-        int expectedSize = 2;
-        int actualSize = bookings.size();
-        assertEquals(expectedSize, actualSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                bookerId, item1.getId(), status, now));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                user2.getId(), item1.getId(), status, now));
+    }
+
+    @Test
+    void existsByBookerIdAndItemIdAndStatusAndEndBefore_whenBookingArchived_thenFound() {
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setStart(LocalDateTime.now().minusDays(200));
+        booking1.setEnd(LocalDateTime.now().minusDays(199));
+        booking1.setArchived(true);
+        bookingRepository.save(booking1);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndEndBeforeAndStatus(
-                bookerId,
-                LocalDateTime.now(),
-                status
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                user1.getId(), item1.getId(), BookingStatus.APPROVED, LocalDateTime.now()));
+    }
+
+    @Test
+    void archiveEndedBefore_whenEndedBookingsInAnyStatus_thenAllArchived() {
+        LocalDateTime horizon = LocalDateTime.now().minusDays(180);
+        booking1.setStatus(BookingStatus.WAITING);
+        booking1.setStart(horizon.minusDays(20));
+        booking1.setEnd(horizon.minusDays(19));
+        bookingRepository.save(booking1);
+        booking2.setStatus(BookingStatus.REJECTED);
+        booking2.setStart(horizon.minusDays(20));
+        booking2.setEnd(horizon.minusDays(19));
+        bookingRepository.save(booking2);
+        Booking approved = new Booking();
+        approved.setBooker(user1);
+        approved.setItem(item1);
+        approved.setStatus(BookingStatus.APPROVED);
+        approved.setStart(horizon.minusDays(2));
+        approved.setEnd(horizon.plusDays(1));
+        bookingRepository.save(approved);
+
+        assertEquals(2, bookingRepository.archiveEndedBefore(horizon, 10));
+        assertEquals(Set.of(booking1, booking2), Set.copyOf(bookingRepository.findSlice(
+                BookingSpecifications.isArchived(true), PageRequest.of(0, 10)).getContent()));
+        assertEquals(List.of(approved), bookingRepository.findSlice(
+                BookingSpecifications.isArchived(false), PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void archiveEndedBefore() {
+        booking1.setStart(LocalDateTime.now().minusDays(200));
+        booking1.setEnd(LocalDateTime.now().minusDays(199));
+        bookingRepository.save(booking1);
+        Specification<Booking> byBooker = BookingSpecifications.byRole(user1.getId(), false);
+
+        int archived = bookingRepository.archiveEndedBefore(LocalDateTime.now().minusDays(180), 10);
+
+        assertEquals(1, archived);
+        assertTrue(bookingRepository.findSlice(
+                byBooker.and(BookingSpecifications.isArchived(false)), PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(booking1), bookingRepository.findSlice(
+                byBooker.and(BookingSpecifications.isArchived(true)), PageRequest.of(0, 10)).getContent());
+        assertEquals(0, bookingRepository.archiveEndedBefore(LocalDateTime.now().minusDays(180), 10));
+    }
+
+    @Test
+    void findLastAndNextApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setStart(now.minusSeconds(300));
+        booking1.setEnd(now.minusSeconds(200));
+        bookingRepository.save(booking1);
+
+        Booking olderBooking = new Booking();
+        olderBooking.setBooker(user1);
+        olderBooking.setStatus(BookingStatus.APPROVED);
+        olderBooking.setStart(now.minusSeconds(600));
+        olderBooking.setEnd(now.minusSeconds(500));
+        olderBooking.setItem(item1);
+        bookingRepository.save(olderBooking);
+
+        Booking nextBooking = new Booking();
+        nextBooking.setBooker(user1);
+        nextBooking.setStatus(BookingStatus.APPROVED);
+        nextBooking.setStart(now.plusSeconds(100));
+        nextBooking.setEnd(now.plusSeconds(200));
+        nextBooking.setItem(item1);
+        bookingRepository.save(nextBooking);
+
+        Booking laterBooking = new Booking();
+        laterBooking.setBooker(user1);
+        laterBooking.setStatus(BookingStatus.APPROVED);
+        laterBooking.setStart(now.plusSeconds(400));
+        laterBooking.setEnd(now.plusSeconds(500));
+        laterBooking.setItem(item1);
+        bookingRepository.save(laterBooking);
+
+        List<BookingItemView> bookingList = bookingRepository.findLastAndNextApprovedBookings(
+                List.of(item1.getId()),
+                user2.getId(),
+                now
         );
 
-        expectedSize = 1;
-        actualSize = bookingList.size();
-        assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertEquals(2, bookingList.size());
+        assertThat(bookingList)
+                .extracting(BookingItemView::getId)
+                .containsExactlyInAnyOrder(booking1.getId(), nextBooking.getId());
+
+        bookingList = bookingRepository.findLastAndNextApprovedBookings(
+                List.of(item1.getId()),
+                user1.getId(),
+                now
+        );
+
+        assertTrue(bookingList.isEmpty());
     }
 
     @Test
-    void findBookingByItemIdAndItemOwnerIdAndStatus() {
+    void findLastAndNextApprovedBookings_whenLastBookingArchived_thenStillReturned() {
+        LocalDateTime now = LocalDateTime.now();
         booking1.setStatus(BookingStatus.APPROVED);
-        booking1.setStart(LocalDateTime.now().minusSeconds(100));
-        booking1.setEnd(LocalDateTime.now().minusSeconds(10));
+        booking1.setStart(now.minusDays(200));
+        booking1.setEnd(now.minusDays(199));
+        booking1.setArchived(true);
         bookingRepository.save(booking1);
 
-        long ownerId = user2.getId();
-        long itemId = item1.getId();
-        BookingStatus status = BookingStatus.APPROVED;
-        List<Booking> bookings = bookingRepository.findAll();
-        int expectedSize = 2;
-        int actualSize = bookings.size();
-        assertEquals(expectedSize, actualSize);
+        List<BookingItemView> bookingList = bookingRepository.findLastAndNextApprovedBookings(
+                List.of(item1.getId()),
+                user2.getId(),
+                now
+        );
+
+        assertEquals(1, bookingList.size());
+        assertEquals(booking1.getId(), bookingList.get(0).getId());
+    }
 
-        List<Booking> bookingList = bookingRepository.findBookingByItemIdAndItemOwnerIdAndStatus(
-                itemId,
-                ownerId,
-                status
+    @Test
+    void findSlice() {
+        booking1.setStart(booking1.getStart().truncatedTo(ChronoUnit.SECONDS));
+        bookingRepository.save(booking1);
+        Booking booking3 = new Booking();
+        booking3.setBooker(user1);
+        booking3.setStatus(BookingStatus.APPROVED);
+        booking3.setStart(booking1.getStart().minusSeconds(50));
+        booking3.setEnd(booking1.getEnd());
+        booking3.setItem(item1);
+        bookingRepository.save(booking3);
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by("start", "id").descending());
+        Specification<Booking> specification = BookingSpecifications.byRole(user1.getId(), false)
+                .and(BookingSpecifications.byState(BookingState.ALL, LocalDateTime.now()));
+
+        Slice<Booking> firstSlice = bookingRepository.findSlice(specification, pageable);
+
+        assertEquals(List.of(booking1), firstSlice.getContent());
+        assertTrue(firstSlice.hasNext());
+
+        Slice<Booking> secondSlice = bookingRepository.findSlice(
+                specification.and(BookingSpecifications.startsBefore(booking1.getStart(), booking1.getId())),
+                pageable
         );
 
-        expectedSize = 1;
-        actualSize = bookingList.size();
-        assertEquals(expectedSize, actualSize);
-        assertThat(booking1).isIn(bookingList);
+        assertEquals(List.of(booking3), secondSlice.getContent());
+        assertFalse(secondSlice.hasNext());
+    }
+
+    @Test
+    void findSlice_whenOffsetNotMultipleOfSize_thenRowsFromOffsetReturned() {
+        for (int i = 1; i <= 4; i++) {
+            Booking booking = new Booking();
+            booking.setBooker(user1);
+            booking.setStatus(BookingStatus.WAITING);
+            booking.setStart(booking1.getStart().minusDays(i));
+            booking.setEnd(booking1.getEnd().minusDays(i));
+            booking.setItem(item1);
+            bookingRepository.save(booking);
+        }
+        Specification<Booking> specification = BookingSpecifications.of(
+                user1.getId(), false, BookingState.ALL, LocalDateTime.now(), false);
+
+        Slice<Booking> slice = bookingRepository.findSlice(
+                specification,
+                OffsetPageRequest.of(4, 2, Sort.by("start", "id").descending())
+        );
+
+        assertEquals(1, slice.getContent().size());
+        assertEquals(booking1.getStart().minusDays(4), slice.getContent().get(0).getStart());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void compareAndSetStatus_whenItemNotAvailable_thenNotUpdated() {
+        item1.setAvailable(false);
+        itemRepository.save(item1);
+
+        int updated = bookingRepository.compareAndSetStatus(
+                booking1.getId(), user2.getId(), BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertEquals(0, updated);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(booking1.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void compareAndSetStatuses() {
+        int[] updated = bookingRepository.compareAndSetStatuses(user2.getId(), List.of(
+                getDecision(booking1.getId(), true),
+                getDecision(booking2.getId(), true),
+                getDecision(booking1.getId(), false)
+        ));
+
+        assertArrayEquals(new int[]{1, 0, 0}, updated);
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking1.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(booking2.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void compareAndSetStatuses_whenItemNotAvailable_thenNotUpdated() {
+        item1.setAvailable(false);
+        itemRepository.save(item1);
+
+        int[] updated = bookingRepository.compareAndSetStatuses(user2.getId(), List.of(
+                getDecision(booking1.getId(), true)
+        ));
+
+        assertArrayEquals(new int[]{0}, updated);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(booking1.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void streamAllByItemOwnerId() {
+        try (Stream<Booking> bookings = bookingRepository.streamAllByItemOwnerId(user2.getId())) {
+            assertEquals(List.of(booking1), bookings.collect(Collectors.toList()));
+        }
+        try (Stream<Booking> bookings = bookingRepository.streamAllByBookerId(user1.getId())) {
+            assertEquals(List.of(booking1), bookings.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void insertAll() {
+        Booking booking3 = new Booking();
+        booking3.setBooker(user1);
+        booking3.setStatus(BookingStatus.WAITING);
+        booking3.setStart(LocalDateTime.now().plusDays(1));
+        booking3.setEnd(LocalDateTime.now().plusDays(2));
+        booking3.setItem(item1);
+        Booking booking4 = new Booking();
+        booking4.setBooker(user1);
+        booking4.setStatus(BookingStatus.WAITING);
+        booking4.setStart(LocalDateTime.now().plusDays(3));
+        booking4.setEnd(LocalDateTime.now().plusDays(4));
+        booking4.setItem(item1);
+
+        bookingRepository.insertAll(List.of(booking3, booking4));
+
+        assertTrue(booking3.getId() > booking2.getId());
+        assertEquals(booking3.getId() + 1, booking4.getId());
+        Booking actual = bookingRepository.findById(booking4.getId()).orElseThrow();
+        assertEquals(item1.getId(), actual.getItem().getId());
+        assertEquals(user1.getId(), actual.getBooker().getId());
+        assertEquals(BookingStatus.WAITING, actual.getStatus());
+    }
+
+    private BookingDecisionDto getDecision(long bookingId, boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package ru.practicum.server.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.enums.BookingState;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.exception.BookingTimeConflictException;
+import ru.practicum.server.booking.exception.UnsupportedStatusException;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.stream.BookingEventHub;
+import ru.practicum.server.item.index.ItemOwnershipIndex;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.search.LikeItemSearchEngine;
+import ru.practicum.server.item.service.ItemServiceImpl;
+import ru.practicum.server.request.feed.RequestFeed;
+import ru.practicum.server.request.service.RequestServiceImpl;
+import ru.practicum.server.user.index.UserExistenceIndex;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        BookingServiceImpl.class,
+        BookingIntervalIndex.class,
+        BookingEventHub.class,
+        ItemServiceImpl.class,
+        ItemOwnershipIndex.class,
+        UserServiceImpl.class,
+        UserExistenceIndex.class,
+        RequestServiceImpl.class,
+        RequestFeed.class,
+        LikeItemSearchEngine.class
+})
+class BookingServiceImplIntegrationTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@ya.ru");
+        userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@ya.ru");
+        userRepository.save(booker);
+
+        item = new Item();
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void save_whenConcurrentOverlappingBookings_thenOnlyOneStored() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        List<Throwable> failures = saveConcurrently(i -> getBookingDto(start.plusMinutes(i), start.plusHours(2)));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(BookingTimeConflictException.class, failure));
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void save_whenConcurrentDisjointBookings_thenAllStoredWithoutOverlap() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        List<Throwable> failures = saveConcurrently(i -> getBookingDto(start.plusHours(i), start.plusHours(i + 1)));
+
+        assertEquals(List.of(), failures);
+        List<Booking> bookings = bookingRepository.findAll();
+        assertEquals(THREADS, bookings.size());
+        for (Booking first : bookings) {
+            for (Booking second : bookings) {
+                if (first.getId() == second.getId()) continue;
+
+                assertFalse(first.getStart().isBefore(second.getEnd()) && second.getStart().isBefore(first.getEnd()));
+            }
+        }
+    }
+
+    @Test
+    void getAll_whenPageHasHundredBookings_thenStatementCountStaysConstant() {
+        saveBookingsOnSeparateItems(100);
+
+        long smallPageStatements = countGetAllStatements(10);
+        long largePageStatements = countGetAllStatements(100);
+
+        assertEquals(1, smallPageStatements);
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void get_whenBookingLoaded_thenItemAndBookerFetchedInSameStatement() {
+        Booking booking = bookingRepository.save(getBooking(item, LocalDateTime.now().plusDays(1)));
+        Statistics statistics = getStatistics();
+
+        statistics.clear();
+        BookingDto bookingDto = bookingService.get(new UserPrincipal(owner.getId()), booking.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(item.getName(), bookingDto.getItem().getName());
+        assertEquals(booker.getName(), bookingDto.getBooker().getName());
+    }
+
+    @Test
+    void approveBooking_whenConcurrentApprovals_thenOnlyOneDecides() throws Exception {
+        Booking booking = bookingRepository.save(getBooking(item, LocalDateTime.now().plusDays(1)));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<BookingDto>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return bookingService.approveBooking(new UserPrincipal(owner.getId()), booking.getId(), approved);
+            }));
+        }
+        ready.countDown();
+
+        List<BookingDto> decided = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<BookingDto> future : futures) {
+            try {
+                decided.add(future.get());
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, decided.size());
+        failures.forEach(failure -> assertInstanceOf(UnsupportedStatusException.class, failure));
+        assertEquals(decided.get(0).getStatus(), bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    private long countGetAllStatements(int size) {
+        Statistics statistics = getStatistics();
+
+        statistics.clear();
+        List<BookingDto> bookings = bookingService.getAll(
+                new UserPrincipal(owner.getId()),
+                BookingState.ALL,
+                true,
+                false,
+                PageRequest.of(0, size, Sort.by("start", "id").descending())
+        );
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(size, bookings.size());
+        bookings.forEach(bookingDto -> {
+            assertEquals(booker.getName(), bookingDto.getBooker().getName());
+            assertEquals(bookingDto.getItemId(), bookingDto.getItem().getId());
+        });
+        return statements;
+    }
+
+    private void saveBookingsOnSeparateItems(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < count; i++) {
+            Item bookedItem = new Item();
+            bookedItem.setName("item" + i);
+            bookedItem.setDescription("description" + i);
+            bookedItem.setAvailable(true);
+            bookedItem.setOwner(owner);
+            itemRepository.save(bookedItem);
+
+            bookingRepository.save(getBooking(bookedItem, start.plusHours(i)));
+        }
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Booking getBooking(Item bookedItem, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(bookedItem);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+
+    private List<Throwable> saveConcurrently(IntFunction<BookingDto> slots) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<BookingDto>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            BookingDto bookingDto = slots.apply(i);
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return bookingService.save(new UserPrincipal(booker.getId()), bookingDto);
+            }));
+        }
+        ready.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<BookingDto> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        return failures;
+    }
+
+    private BookingDto getBookingDto(LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+}
@@ -6,35 +6,63 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDecisionDto;
+import ru.practicum.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingEventDto;
+import ru.practicum.server.booking.enums.BookingDecisionOutcome;
+import ru.practicum.server.booking.enums.BookingEventType;
 import ru.practicum.server.booking.enums.BookingState;
 import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.exception.BadDataBookingException;
 import ru.practicum.server.booking.exception.BookingNotFoundException;
 import ru.practicum.server.booking.exception.NoAccessBookingException;
 import ru.practicum.server.booking.exception.UnsupportedStatusException;
 import ru.practicum.server.booking.exception.WrongUserApproveException;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
 import ru.practicum.server.booking.mapper.BookingMapper;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.stream.BookingEventHub;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.item.exception.ItemNotAvailableException;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemStatsRepository;
 import ru.practicum.server.item.service.ItemService;
 import ru.practicum.server.user.exception.UserNotFoundException;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +73,14 @@ class BookingServiceImplTest {
     private ItemService itemService;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemStatsRepository itemStatsRepository;
+    @Mock
+    private BookingEventHub bookingEventHub;
     @InjectMocks
     private BookingServiceImpl bookingService;
     private User owner;
@@ -67,7 +103,7 @@ class BookingServiceImplTest {
         doThrow(UserNotFoundException.class).when(userService).get(userId);
 
         assertThrows(UserNotFoundException.class,
-                () -> bookingService.save(userId, new BookingDto()));
+                () -> bookingService.save(new UserPrincipal(userId), new BookingDto()));
     }
 
     @Test
@@ -77,63 +113,157 @@ class BookingServiceImplTest {
 
         when(userService.get(booker.getId())).thenReturn(UserMapper.toUserDto(booker));
         when(itemService.getAvailableItem(item.getId())).thenReturn(item);
+        when(bookingIntervalIndex.reserve(eq(item.getId()), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Booking>>getArgument(3).get());
         when(bookingRepository.save(booking)).thenReturn(booking);
 
-        BookingDto actualBookingDto = bookingService.save(booker.getId(), expectedBookingDto);
+        BookingDto actualBookingDto = bookingService.save(new UserPrincipal(booker.getId()), expectedBookingDto);
         assertEquals(expectedBookingDto, actualBookingDto);
+        verify(itemStatsRepository).incrementWaiting(item.getId());
+        verify(bookingEventHub).publish(new BookingEventDto(BookingEventType.CREATED, actualBookingDto), owner.getId());
     }
 
     @Test
-    void approveBooking_whenInvokedWithTrue_ReturnedBookingDtoWithStatusApproved() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(itemService.getAvailableItem(item.getId())).thenReturn(item);
+    void save_whenBookerIsOwner_thenNoAccessBookingExceptionThrow() {
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+
         when(userService.get(owner.getId())).thenReturn(UserMapper.toUserDto(owner));
+        when(itemService.getAvailableItem(item.getId())).thenReturn(item);
+
+        assertThrows(NoAccessBookingException.class,
+                () -> bookingService.save(new UserPrincipal(owner.getId()), bookingDto));
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    void approveBooking_whenInvokedWithTrue_ReturnedBookingDtoWithStatusApproved() {
+        booking.setStatus(BookingStatus.APPROVED);
+
+        when(bookingRepository.compareAndSetStatus(
+                booking.getId(), owner.getId(), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
-        BookingDto bookingDto = bookingService.approveBooking(owner.getId(), booking.getId(), true);
+        BookingDto bookingDto = bookingService.approveBooking(new UserPrincipal(owner.getId()), booking.getId(), true);
 
         BookingStatus expectedStatus = BookingStatus.APPROVED;
         BookingStatus actualStatus = bookingDto.getStatus();
 
         assertEquals(expectedStatus, actualStatus);
+        verify(bookingIntervalIndex).update(booking);
+        verify(itemStatsRepository).recordApproved(
+                item.getId(),
+                Duration.between(booking.getStart(), booking.getEnd()).getSeconds()
+        );
+        verify(bookingEventHub).publish(new BookingEventDto(BookingEventType.APPROVED, bookingDto), owner.getId());
+        verify(bookingRepository, never()).save(any());
+        verify(userService, never()).get(anyLong());
     }
 
     @Test
     void approveBooking_whenStatusNotWaiting_thenUnsupportedStatusExceptionThrow() {
         booking.setStatus(BookingStatus.REJECTED);
 
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(UnsupportedStatusException.class,
-                () -> bookingService.approveBooking(owner.getId(), booking.getId(), true));
+                () -> bookingService.approveBooking(new UserPrincipal(owner.getId()), booking.getId(), true));
+    }
+
+    @Test
+    void approveBooking_whenItemNotAvailable_thenItemNotAvailableExceptionThrow() {
+        item.setAvailable(false);
+
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(ItemNotAvailableException.class,
+                () -> bookingService.approveBooking(new UserPrincipal(owner.getId()), booking.getId(), true));
+        verify(bookingIntervalIndex, never()).update(any());
     }
 
     @Test
     void approveBooking_whenApprovedOtherUser_thenWrongUserApproveExceptionThrow() {
         User otherUser = getUser(3);
 
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(itemService.getAvailableItem(item.getId())).thenReturn(item);
-        when(userService.get(anyLong())).thenReturn(UserMapper.toUserDto(otherUser));
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(WrongUserApproveException.class,
-                () -> bookingService.approveBooking(otherUser.getId(), booking.getId(), true));
+                () -> bookingService.approveBooking(new UserPrincipal(otherUser.getId()), booking.getId(), true));
+        verify(bookingIntervalIndex, never()).update(any());
+        verify(bookingEventHub, never()).publish(any(), anyLong());
     }
 
     @Test
     void approveBooking_whenBookerEqualsOwner_thenNoAccessBookingExceptionThrow() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(itemService.getAvailableItem(item.getId())).thenReturn(item);
-        when(userService.get(booker.getId())).thenReturn(UserMapper.toUserDto(booker));
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(NoAccessBookingException.class,
-                () -> bookingService.approveBooking(booker.getId(), booking.getId(), true));
+                () -> bookingService.approveBooking(new UserPrincipal(booker.getId()), booking.getId(), true));
+    }
+
+    @Test
+    void approveBookings_whenMixedDecisions_thenOutcomePerBooking() {
+        booking.setStatus(BookingStatus.APPROVED);
+        Booking decidedBooking = getBooking();
+        decidedBooking.setId(2);
+        decidedBooking.setStatus(BookingStatus.REJECTED);
+        Item otherItem = getItem(getUser(3));
+        otherItem.setId(2);
+        Booking otherBooking = getBooking();
+        otherBooking.setId(3);
+        otherBooking.setItem(otherItem);
+        Item unavailableItem = getItem(owner);
+        unavailableItem.setId(3);
+        unavailableItem.setAvailable(false);
+        Booking unavailableBooking = getBooking();
+        unavailableBooking.setId(5);
+        unavailableBooking.setItem(unavailableItem);
+        List<BookingDecisionDto> decisions = List.of(
+                getDecision(1, true),
+                getDecision(2, true),
+                getDecision(3, false),
+                getDecision(4, false),
+                getDecision(5, true)
+        );
+
+        when(bookingRepository.compareAndSetStatuses(owner.getId(), decisions)).thenReturn(new int[]{1, 0, 0, 0, 0});
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(Set.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(booking, decidedBooking, otherBooking, unavailableBooking));
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(new UserPrincipal(owner.getId()), decisions);
+
+        assertEquals(List.of(
+                BookingDecisionOutcome.UPDATED,
+                BookingDecisionOutcome.ALREADY_DECIDED,
+                BookingDecisionOutcome.NOT_OWNER,
+                BookingDecisionOutcome.NOT_FOUND,
+                BookingDecisionOutcome.NOT_AVAILABLE
+        ), results.stream().map(BookingDecisionResultDto::getOutcome).collect(Collectors.toList()));
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertNull(results.get(1).getBooking());
+        verify(bookingIntervalIndex).update(booking);
+        verify(bookingIntervalIndex, never()).update(decidedBooking);
+        verify(itemStatsRepository, times(1)).recordApproved(eq(item.getId()), anyLong());
+        verify(itemStatsRepository, never()).recordRejected(anyLong());
+    }
+
+    @Test
+    void approveBookings_whenBatchEmptyOrTooLarge_thenBadDataBookingExceptionThrow() {
+        UserPrincipal principal = new UserPrincipal(owner.getId());
+        List<BookingDecisionDto> tooMany = LongStream.rangeClosed(1, 101)
+                .mapToObj(bookingId -> getDecision(bookingId, true))
+                .collect(Collectors.toList());
+
+        assertThrows(BadDataBookingException.class, () -> bookingService.approveBookings(principal, List.of()));
+        assertThrows(BadDataBookingException.class, () -> bookingService.approveBookings(principal, tooMany));
+        verify(bookingRepository, never()).compareAndSetStatuses(anyLong(), any());
     }
 
     @Test
     void get_whenUserIdValid_thenReturnedBookingDto() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
-        BookingDto actualBookingDto = bookingService.get(owner.getId(), booking.getId());
+        BookingDto actualBookingDto = bookingService.get(new UserPrincipal(owner.getId()), booking.getId());
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(booking);
         assertEquals(expectedBookingDto, actualBookingDto);
     }
@@ -142,10 +272,10 @@ class BookingServiceImplTest {
     void get_whenOtherUserId_thenNoAccessBookingExceptionThrow() {
         int otherUserId = 100;
 
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(NoAccessBookingException.class,
-                () -> bookingService.get(otherUserId, booking.getId()));
+                () -> bookingService.get(new UserPrincipal(otherUserId), booking.getId()));
     }
 
     @Test
@@ -153,10 +283,10 @@ class BookingServiceImplTest {
         long userId = 0;
         long wrongBookingId = 1;
 
-        when(bookingRepository.findById(wrongBookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemAndBookerById(wrongBookingId)).thenReturn(Optional.empty());
 
         assertThrows(BookingNotFoundException.class,
-                () -> bookingService.get(userId, wrongBookingId));
+                () -> bookingService.get(new UserPrincipal(userId), wrongBookingId));
     }
 
     @Test
@@ -165,13 +295,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository
-                .findAllByItemOwnerIdAndStartAfter(
-                        eq(owner.getId()), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -184,12 +312,11 @@ class BookingServiceImplTest {
         boolean isOwner = false;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerIdAndStartAfter(
-                eq(owner.getId()), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -202,12 +329,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(
-                eq(owner.getId()), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -220,12 +346,11 @@ class BookingServiceImplTest {
         boolean isOwner = false;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerIdAndEndBefore(
-                eq(owner.getId()), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -238,12 +363,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(
-                eq(owner.getId()), any(), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -256,12 +380,11 @@ class BookingServiceImplTest {
         boolean isOwner = false;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(
-                eq(owner.getId()), any(), any(), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -274,12 +397,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(
-                eq(owner.getId()), eq(BookingStatus.WAITING), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -292,12 +414,11 @@ class BookingServiceImplTest {
         boolean isOwner = false;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                eq(owner.getId()), eq(BookingStatus.WAITING), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -311,12 +432,11 @@ class BookingServiceImplTest {
         booking.setStatus(BookingStatus.REJECTED);
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(
-                eq(owner.getId()), eq(BookingStatus.REJECTED), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -330,12 +450,11 @@ class BookingServiceImplTest {
         booking.setStatus(BookingStatus.REJECTED);
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                eq(owner.getId()), eq(BookingStatus.REJECTED), eq(getPageRequest())))
-                .thenReturn(bookingList);
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -348,12 +467,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerId(
-                eq(owner.getId()), eq(getPageRequest())))
-                .thenReturn(new PageImpl<>(bookingList, getPageRequest(), 3));
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -366,12 +484,11 @@ class BookingServiceImplTest {
         boolean isOwner = true;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByItemOwnerId(
-                owner.getId(), PageRequest.of(4, 1)))
-                .thenReturn(new PageImpl<>(bookingList, PageRequest.of(4, 1), 1));
+        when(bookingRepository.findSlice(any(), eq(PageRequest.of(4, 1))))
+                .thenReturn(new SliceImpl<>(bookingList, PageRequest.of(4, 1), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(owner.getId(), state, isOwner, PageRequest.of(4, 1));
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, PageRequest.of(4, 1));
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -384,12 +501,11 @@ class BookingServiceImplTest {
         boolean isOwner = false;
         List<Booking> bookingList = List.of(booking);
 
-        when(bookingRepository.findAllByBookerId(
-                eq(booker.getId()), eq(getPageRequest())))
-                .thenReturn(new PageImpl<>(bookingList, getPageRequest(), 0));
+        when(bookingRepository.findSlice(any(), eq(getPageRequest())))
+                .thenReturn(new SliceImpl<>(bookingList, getPageRequest(), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(booker.getId(), state, isOwner, getPageRequest());
+                .getAll(new UserPrincipal(booker.getId()), state, isOwner, false, getPageRequest());
         List<BookingDto> expectedList = bookingList.stream()
                 .map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
@@ -397,47 +513,33 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void getAll_whenExcessPage_thenReturnedLastPage() {
+    void getAll_whenExcessPage_thenReturnedEmptyListWithoutRefetch() {
         BookingState state = BookingState.ALL;
         boolean isOwner = false;
-        List<Booking> bookingList = List.of(booking, getBooking(), getBooking());
-
-        when(bookingRepository.findAllByBookerId(
-                eq(booker.getId()), eq(PageRequest.of(3, 1))))
-                .thenReturn(new PageImpl<>(bookingList, PageRequest.of(1, 1), 2));
 
-        when(bookingRepository.findAllByBookerId(
-                eq(booker.getId()), eq(PageRequest.of(1, 1))))
-                .thenReturn(new PageImpl<>(bookingList, PageRequest.of(1, 1), 2));
+        when(bookingRepository.findSlice(any(), eq(PageRequest.of(3, 1))))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(3, 1), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(booker.getId(), state, isOwner, PageRequest.of(3, 1));
-        List<BookingDto> expectedList = bookingList.stream()
-                .map(BookingMapper::toBookingDto).collect(Collectors.toList());
+                .getAll(new UserPrincipal(booker.getId()), state, isOwner, false, PageRequest.of(3, 1));
 
-        assertEquals(expectedList, actualList);
+        assertTrue(actualList.isEmpty());
+        verify(bookingRepository, times(1)).findSlice(any(), any());
     }
 
     @Test
-    void getAll_whenExcessPageFromOwner_thenReturnedLastPage() {
+    void getAll_whenExcessPageFromOwner_thenReturnedEmptyListWithoutRefetch() {
         BookingState state = BookingState.ALL;
         boolean isOwner = true;
-        List<Booking> bookingList = List.of(booking, getBooking(), getBooking());
-
-        when(bookingRepository.findAllByItemOwnerId(
-                eq(booker.getId()), eq(PageRequest.of(3, 1))))
-                .thenReturn(new PageImpl<>(bookingList, PageRequest.of(1, 1), 2));
 
-        when(bookingRepository.findAllByItemOwnerId(
-                eq(booker.getId()), eq(PageRequest.of(1, 1))))
-                .thenReturn(new PageImpl<>(bookingList, PageRequest.of(1, 1), 2));
+        when(bookingRepository.findSlice(any(), eq(PageRequest.of(3, 1))))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(3, 1), false));
 
         List<BookingDto> actualList = bookingService
-                .getAll(booker.getId(), state, isOwner, PageRequest.of(3, 1));
-        List<BookingDto> expectedList = bookingList.stream()
-                .map(BookingMapper::toBookingDto).collect(Collectors.toList());
+                .getAll(new UserPrincipal(owner.getId()), state, isOwner, false, PageRequest.of(3, 1));
 
-        assertEquals(expectedList, actualList);
+        assertTrue(actualList.isEmpty());
+        verify(bookingRepository, times(1)).findSlice(any(), any());
     }
 
     private User getUser(int id) {
@@ -458,6 +560,81 @@ class BookingServiceImplTest {
         return item;
     }
 
+    @Test
+    void export_whenOwner_thenEveryBookingPassedToConsumerAndDetached() {
+        when(bookingRepository.streamAllByItemOwnerId(owner.getId())).thenReturn(Stream.of(booking));
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.export(new UserPrincipal(owner.getId()), true, exported::add);
+
+        assertEquals(List.of(BookingMapper.toBookingDto(booking)), exported);
+        verify(entityManager).detach(booking);
+        verify(bookingRepository, never()).streamAllByBookerId(anyLong());
+    }
+
+    @Test
+    void export_whenBooker_thenBookerBookingsStreamed() {
+        when(bookingRepository.streamAllByBookerId(booker.getId())).thenReturn(Stream.of(booking, booking));
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.export(new UserPrincipal(booker.getId()), false, exported::add);
+
+        assertEquals(2, exported.size());
+        verify(entityManager, times(2)).detach(booking);
+    }
+
+    @Test
+    void subscribe_whenUserValid_thenEmitterFromHub() {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingEventHub.subscribe(owner.getId())).thenReturn(emitter);
+
+        assertSame(emitter, bookingService.subscribe(new UserPrincipal(owner.getId())));
+    }
+
+    @Test
+    void importAll_whenRowsGiven_thenEachRowReported() {
+        Item ownItem = getItem(booker);
+        ownItem.setId(2);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        when(userService.get(booker.getId())).thenReturn(UserMapper.toUserDto(booker));
+        when(itemService.getItems(Set.of(1L, 2L, 99L))).thenReturn(Map.of(1L, item, 2L, ownItem));
+        when(bookingIntervalIndex.reserveAll(any(), any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            assertEquals(2, bookings.size());
+            bookings.get(0).setId(20);
+            invocation.<Consumer<List<Booking>>>getArgument(1).accept(List.of(bookings.get(0)));
+            return new boolean[]{true, false};
+        });
+
+        List<BulkRowResultDto> results = bookingService.importAll(new UserPrincipal(booker.getId()), List.of(
+                new BulkRow<>(1, getBookingDto(1, start)),
+                new BulkRow<>(2, getBookingDto(1, LocalDateTime.now().minusDays(1))),
+                new BulkRow<>(3, getBookingDto(99, start)),
+                new BulkRow<>(4, getBookingDto(1, start.plusHours(1))),
+                new BulkRow<>(5, getBookingDto(2, start))
+        ));
+
+        assertEquals(List.of(
+                new BulkRowResultDto(2, 0, BulkRowOutcome.INVALID, "start in past tense"),
+                new BulkRowResultDto(3, 0, BulkRowOutcome.NOT_FOUND, "Item with ID:99 not found"),
+                new BulkRowResultDto(5, 0, BulkRowOutcome.NOT_AVAILABLE, "This is your item"),
+                new BulkRowResultDto(1, 20, BulkRowOutcome.CREATED, null),
+                new BulkRowResultDto(4, 0, BulkRowOutcome.CONFLICT, "Item with ID:1 is already booked for this time")
+        ), results);
+        verify(bookingRepository).insertAll(any());
+        verify(itemStatsRepository).addWaiting(item.getId(), 1);
+        verify(bookingEventHub, times(1)).publish(any(), eq(owner.getId()));
+    }
+
+    private BookingDto getBookingDto(long itemId, LocalDateTime start) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(start.plusHours(2));
+        return bookingDto;
+    }
+
     private Booking getBooking() {
         Booking booking = new Booking();
         booking.setId(1);
@@ -469,6 +646,13 @@ class BookingServiceImplTest {
         return booking;
     }
 
+    private BookingDecisionDto getDecision(long bookingId, boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
+    }
+
     private PageRequest getPageRequest() {
         return PageRequest.of(0, 10);
     }
@@ -0,0 +1,107 @@
+package ru.practicum.server.booking.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingEventDto;
+import ru.practicum.server.booking.enums.BookingEventType;
+import ru.practicum.server.user.dto.UserDto;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BookingEventHubTest {
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+
+    private BookingEventHub bookingEventHub;
+
+    @BeforeEach
+    void setUp() {
+        bookingEventHub = new BookingEventHub(1, Duration.ofMinutes(1), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        bookingEventHub.close();
+    }
+
+    @Test
+    void publish_whenNoTransaction_thenSentToOwnerAndBooker() throws Exception {
+        SseEmitter ownerEmitter = mock(SseEmitter.class);
+        SseEmitter bookerEmitter = mock(SseEmitter.class);
+        bookingEventHub.subscribe(OWNER_ID, ownerEmitter);
+        bookingEventHub.subscribe(BOOKER_ID, bookerEmitter);
+
+        bookingEventHub.publish(getEvent(1), OWNER_ID);
+
+        verify(ownerEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(bookerEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void publish_whenInTransaction_thenSentOnlyAfterCommit() throws Exception {
+        SseEmitter ownerEmitter = mock(SseEmitter.class);
+        bookingEventHub.subscribe(OWNER_ID, ownerEmitter);
+        TransactionSynchronizationManager.initSynchronization();
+
+        bookingEventHub.publish(getEvent(1), OWNER_ID);
+
+        Thread.sleep(100);
+        verify(ownerEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(ownerEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void publish_whenSubscriberBufferFull_thenSubscriptionClosed() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter ownerEmitter = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(ownerEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        bookingEventHub.subscribe(OWNER_ID, ownerEmitter);
+
+        bookingEventHub.publish(getEvent(1), OWNER_ID);
+        sending.await();
+        bookingEventHub.publish(getEvent(2), OWNER_ID);
+        bookingEventHub.publish(getEvent(3), OWNER_ID);
+
+        assertEquals(0, bookingEventHub.getSubscriberCount(OWNER_ID));
+        verify(ownerEmitter).complete();
+
+        release.countDown();
+        verify(ownerEmitter, timeout(1000).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(ownerEmitter, times(1)).complete();
+    }
+
+    private BookingEventDto getEvent(long bookingId) {
+        UserDto booker = new UserDto();
+        booker.setId(BOOKER_ID);
+        BookingDto booking = new BookingDto();
+        booking.setId(bookingId);
+        booking.setBooker(booker);
+        return new BookingEventDto(BookingEventType.CREATED, booking);
+    }
+}
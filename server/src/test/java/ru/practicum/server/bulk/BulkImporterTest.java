@@ -0,0 +1,116 @@
+package ru.practicum.server.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.user.dto.UserDto;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkImporterTest {
+    private static final int CHUNK_SIZE = 2;
+
+    private BulkImporter bulkImporter;
+    private List<List<Long>> chunks;
+    private List<BulkRowResultDto> results;
+
+    @BeforeEach
+    void setUp() {
+        bulkImporter = new BulkImporter(
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                CHUNK_SIZE
+        );
+        chunks = new ArrayList<>();
+        results = new ArrayList<>();
+    }
+
+    @Test
+    void run_whenRowsGiven_thenImportedInChunksWithLineNumbers() throws IOException {
+        bulkImporter.run(ndjson(user("a"), "", user("b"), user("c")), null, UserDto.class, this::createAll, results::add);
+
+        assertEquals(List.of(List.of(1L, 3L), List.of(4L)), chunks);
+        assertEquals(List.of(1L, 3L, 4L), lines(BulkRowOutcome.CREATED));
+    }
+
+    @Test
+    void run_whenRowsMalformedOrInvalid_thenReportedWithoutReachingImporter() throws IOException {
+        bulkImporter.run(
+                ndjson(user("a"), "{\"name\":", "{\"name\":\"b\",\"email\":\"not-an-email\"}", "null"),
+                null,
+                UserDto.class,
+                this::createAll,
+                results::add
+        );
+
+        assertEquals(List.of(List.of(1L)), chunks);
+        assertEquals(List.of(2L, 3L, 4L), lines(BulkRowOutcome.INVALID));
+        assertTrue(results.get(1).getMessage().startsWith("Malformed JSON"));
+        assertTrue(results.get(2).getMessage().startsWith("email"));
+    }
+
+    @Test
+    void run_whenBodyGzipped_thenRowsDecompressed() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write((user("a") + "\n" + user("b")).getBytes(StandardCharsets.UTF_8));
+        }
+
+        bulkImporter.run(
+                new ByteArrayInputStream(bytes.toByteArray()),
+                "gzip",
+                UserDto.class,
+                this::createAll,
+                results::add
+        );
+
+        assertEquals(List.of(1L, 2L), lines(BulkRowOutcome.CREATED));
+    }
+
+    @Test
+    void run_whenChunkFails_thenChunkRowsFailedAndNextChunkImported() throws IOException {
+        Function<List<BulkRow<UserDto>>, List<BulkRowResultDto>> importer = rows -> {
+            if (rows.get(0).getLine() == 1) throw new IllegalStateException("unique constraint");
+            return createAll(rows);
+        };
+
+        bulkImporter.run(ndjson(user("a"), user("b"), user("c")), null, UserDto.class, importer, results::add);
+
+        assertEquals(List.of(1L, 2L), lines(BulkRowOutcome.FAILED));
+        assertEquals(List.of(3L), lines(BulkRowOutcome.CREATED));
+    }
+
+    private List<BulkRowResultDto> createAll(List<BulkRow<UserDto>> rows) {
+        chunks.add(rows.stream().map(BulkRow::getLine).collect(Collectors.toList()));
+        return rows.stream().map(row -> row.created(row.getLine() * 10)).collect(Collectors.toList());
+    }
+
+    private List<Long> lines(BulkRowOutcome outcome) {
+        return results.stream()
+                .filter(result -> result.getOutcome() == outcome)
+                .map(BulkRowResultDto::getLine)
+                .collect(Collectors.toList());
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String user(String name) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + name + "@ya.ru\"}";
+    }
+}
@@ -149,4 +149,20 @@ class ErrorHandlerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void handleBadDataBookingException() throws Exception {
+        var user = new UserDto();
+        user.setName("john");
+        user.setEmail("john@ya.ru");
+        mvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
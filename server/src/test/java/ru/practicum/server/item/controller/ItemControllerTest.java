@@ -1,29 +1,44 @@
 package ru.practicum.server.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.server.export.NdjsonWriter;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.pagination.Cursor;
+import ru.practicum.server.user.principal.UserPrincipal;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ItemControllerTest {
     @Mock
     private ItemService itemService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
     @InjectMocks
     private ItemController itemController;
 
@@ -31,10 +46,10 @@ class ItemControllerTest {
     void create_whenInvoked_thenResponseStatusOkWithItemInBody() {
         long userId = 1;
         ItemDto expectedItemDto = new ItemDto();
-        when(itemService.create(userId, new ItemDto()))
+        when(itemService.create(new UserPrincipal(userId), new ItemDto()))
                 .thenReturn(expectedItemDto);
 
-        ResponseEntity<ItemDto> response = itemController.create(userId, expectedItemDto);
+        ResponseEntity<ItemDto> response = itemController.create(new UserPrincipal(userId), expectedItemDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedItemDto, response.getBody());
@@ -45,10 +60,10 @@ class ItemControllerTest {
         long userId = 1;
         long itemId = 1;
         ItemDto expectedItemDto = new ItemDto();
-        when(itemService.update(userId, new ItemDto(), itemId))
+        when(itemService.update(new UserPrincipal(userId), new ItemDto(), itemId))
                 .thenReturn(expectedItemDto);
 
-        ResponseEntity<ItemDto> response = itemController.update(userId, expectedItemDto, itemId);
+        ResponseEntity<ItemDto> response = itemController.update(new UserPrincipal(userId), expectedItemDto, itemId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedItemDto, response.getBody());
@@ -59,9 +74,9 @@ class ItemControllerTest {
         long userId = 1;
         long itemId = 1;
         ItemDto expectedItemDto = new ItemDto();
-        when(itemService.get(userId, itemId)).thenReturn(expectedItemDto);
+        when(itemService.get(new UserPrincipal(userId), itemId)).thenReturn(expectedItemDto);
 
-        ResponseEntity<ItemDto> response = itemController.get(userId, itemId);
+        ResponseEntity<ItemDto> response = itemController.get(new UserPrincipal(userId), itemId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedItemDto, response.getBody());
@@ -72,11 +87,11 @@ class ItemControllerTest {
         long userId = 1;
         long itemId = 1;
         CommentDto expectedCommentDto = new CommentDto();
-        when(itemService.addComment(itemId, userId, new Comment()))
+        when(itemService.addComment(itemId, new UserPrincipal(userId), new Comment()))
                 .thenReturn(expectedCommentDto);
 
         ResponseEntity<CommentDto> response = itemController
-                .addComment(itemId, userId, new Comment());
+                .addComment(new UserPrincipal(userId), itemId, new Comment());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedCommentDto, response.getBody());
@@ -87,24 +102,121 @@ class ItemControllerTest {
         long userId = 1;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id"));
         List<ItemDto> expectedItemDtoList = List.of(new ItemDto());
-        Mockito.when(itemService.getAll(userId, pageable)).thenReturn(expectedItemDtoList);
+        Mockito.when(itemService.getAll(new UserPrincipal(userId), pageable)).thenReturn(expectedItemDtoList);
 
-        ResponseEntity<List<ItemDto>> response = itemController.getAll(userId, 0, 10);
+        ResponseEntity<List<ItemDto>> response = itemController.getAll(new UserPrincipal(userId), 0, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedItemDtoList, response.getBody());
     }
 
+    @Test
+    void getStats() {
+        long userId = 1;
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("itemId"));
+        List<ItemStatsDto> expectedStats = List.of(new ItemStatsDto());
+        when(itemService.getStats(new UserPrincipal(userId), pageable)).thenReturn(expectedStats);
+
+        ResponseEntity<List<ItemStatsDto>> response = itemController.getStats(new UserPrincipal(userId), 0, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedStats, response.getBody());
+    }
+
+    @Test
+    void getAll_whenCursorEmptyAndPageFull_thenNextCursorInHeader() {
+        long userId = 1;
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(7L);
+        List<ItemDto> expectedItemDtoList = List.of(itemDto);
+        when(itemService.getAll(new UserPrincipal(userId), 0, 1)).thenReturn(expectedItemDtoList);
+
+        ResponseEntity<List<ItemDto>> response = itemController.getAll(new UserPrincipal(userId), 0, 1, "");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedItemDtoList, response.getBody());
+        assertEquals(Cursor.encode(7L), response.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAll_whenCursorGiven_thenContinueAfterCursorId() {
+        long userId = 1;
+        when(itemService.getAll(new UserPrincipal(userId), 7, 10)).thenReturn(List.of());
+
+        ResponseEntity<List<ItemDto>> response = itemController.getAll(new UserPrincipal(userId), 0, 10, Cursor.encode(7L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getComments_whenPageFull_thenNextCursorInHeader() {
+        long userId = 1;
+        long itemId = 1;
+        CommentDto commentDto = new CommentDto();
+        commentDto.setId(4);
+        commentDto.setCreated(LocalDateTime.of(2024, 1, 1, 10, 0));
+        List<CommentDto> expectedComments = List.of(commentDto);
+        when(itemService.getComments(new UserPrincipal(userId), itemId, null, 0, 1)).thenReturn(expectedComments);
+
+        ResponseEntity<List<CommentDto>> response = itemController.getComments(new UserPrincipal(userId), itemId, 1, "");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedComments, response.getBody());
+        assertEquals(
+                Cursor.encode(commentDto.getCreated(), 4L),
+                response.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER)
+        );
+    }
+
+    @Test
+    void getAvailability_whenInvoked_thenResponseStatusOkWithAvailabilityInBody() {
+        long userId = 1;
+        long itemId = 1;
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 10, 0);
+        ItemAvailabilityDto expectedAvailability = new ItemAvailabilityDto();
+        when(itemService.getAvailability(new UserPrincipal(userId), itemId, from, null)).thenReturn(expectedAvailability);
+
+        ResponseEntity<ItemAvailabilityDto> response = itemController.getAvailability(new UserPrincipal(userId), itemId, from, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedAvailability, response.getBody());
+    }
+
+    @Test
+    void export_whenInvoked_thenItemsWrittenAsNdjson() throws IOException {
+        long userId = 1;
+        ItemDto first = new ItemDto();
+        first.setId(1);
+        ItemDto second = new ItemDto();
+        second.setId(2);
+        doAnswer(invocation -> {
+            NdjsonWriter<ItemDto> writer = invocation.getArgument(1);
+            writer.accept(first);
+            writer.accept(second);
+            return null;
+        }).when(itemService).export(eq(new UserPrincipal(userId)), any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        itemController.export(new UserPrincipal(userId), response);
+
+        assertEquals(NdjsonWriter.CONTENT_TYPE, response.getContentType());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readValue(lines[0], ItemDto.class).getId());
+        assertEquals(2, objectMapper.readValue(lines[1], ItemDto.class).getId());
+    }
+
     @Test
     void search() {
         long userId = 1;
         String text = "anything";
         PageRequest pageable = PageRequest.of(0, 10);
         List<ItemDto> expectedItemDtoList = List.of(new ItemDto());
-        Mockito.when(itemService.search(userId, text, pageable))
+        Mockito.when(itemService.search(new UserPrincipal(userId), text, null, null, pageable))
                 .thenReturn(expectedItemDtoList);
 
-        ResponseEntity<List<ItemDto>> response = itemController.search(userId, text, 0, 10);
+        ResponseEntity<List<ItemDto>> response = itemController.search(new UserPrincipal(userId), text, 0, 10, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedItemDtoList, response.getBody());
@@ -0,0 +1,111 @@
+package ru.practicum.server.item.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.server.item.dto.ItemOwnershipView;
+import ru.practicum.server.item.exception.ItemNotFoundException;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemOwnershipIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private ItemOwnershipIndex itemOwnershipIndex;
+
+    @Test
+    void getOwnerId_whenItemMissing_thenLoadedOnceFromRepository() {
+        when(itemRepository.findOwnershipById(1)).thenReturn(Optional.of(getView(1, 7, true)));
+
+        assertEquals(7, itemOwnershipIndex.getOwnerId(1));
+        assertTrue(itemOwnershipIndex.isAvailable(1));
+        assertTrue(itemOwnershipIndex.isOwner(1, 7));
+        verify(itemRepository, times(1)).findOwnershipById(1);
+    }
+
+    @Test
+    void getOwnerId_whenItemNotFound_thenItemNotFoundExceptionThrow() {
+        when(itemRepository.findOwnershipById(1)).thenReturn(Optional.empty());
+
+        assertThrows(ItemNotFoundException.class, () -> itemOwnershipIndex.getOwnerId(1));
+        assertFalse(itemOwnershipIndex.isOwner(1, 7));
+    }
+
+    @Test
+    void put_whenItemUpdated_thenIndexAnswersWithoutRepository() {
+        itemOwnershipIndex.put(getItem(1, 7, true));
+        itemOwnershipIndex.put(getItem(1, 7, false));
+
+        assertEquals(7, itemOwnershipIndex.getOwnerId(1));
+        assertFalse(itemOwnershipIndex.isAvailable(1));
+        assertFalse(itemOwnershipIndex.isOwner(1, 8));
+        verify(itemRepository, never()).findOwnershipById(anyLong());
+    }
+
+    @Test
+    void warmUp_whenManyItems_thenAllItemsIndexed() {
+        List<ItemOwnershipView> views = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            views.add(getView(id, id * 31L, id % 2 == 0));
+        }
+        when(itemRepository.findOwnershipAfter(eq(0L), any())).thenReturn(views);
+
+        itemOwnershipIndex.warmUp();
+
+        for (int id = 1; id <= 5000; id++) {
+            assertEquals(id * 31L, itemOwnershipIndex.getOwnerId(id));
+            assertEquals(id % 2 == 0, itemOwnershipIndex.isAvailable(id));
+        }
+        verify(itemRepository, never()).findOwnershipById(anyLong());
+    }
+
+    private Item getItem(long id, long ownerId, boolean available) {
+        User owner = new User();
+        owner.setId(ownerId);
+        Item item = new Item();
+        item.setId(id);
+        item.setOwner(owner);
+        item.setAvailable(available);
+        return item;
+    }
+
+    private ItemOwnershipView getView(long id, long ownerId, boolean available) {
+        return new ItemOwnershipView() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public boolean getAvailable() {
+                return available;
+            }
+        };
+    }
+}
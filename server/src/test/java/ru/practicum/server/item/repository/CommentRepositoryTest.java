@@ -4,12 +4,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -19,20 +23,40 @@ class CommentRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
 
     @Test
-    void findAllByItemId_Id() {
+    void findNewestWithAuthorByItemIdBefore() {
+        User author = new User();
+        author.setName("author");
+        author.setEmail("author@ya.ru");
+        userRepository.save(author);
         Item item = itemRepository.save(new Item());
-        Comment comment = new Comment();
-        comment.setItemId(item);
-        comment.setText("new comment");
-        commentRepository.save(comment);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Comment comment = new Comment();
+            comment.setItemId(item);
+            comment.setAuthorId(author);
+            comment.setText("comment" + i);
+            comment.setCreated(created.plusHours(i));
+            comments.add(commentRepository.save(comment));
+        }
+        PageRequest pageable = PageRequest.of(0, 2);
+
+        List<Comment> firstPage = commentRepository.findNewestWithAuthorByItemId(item.getId(), pageable);
+
+        assertEquals(List.of(comments.get(2), comments.get(1)), firstPage);
 
-        List<Comment> expectedCommentList = commentRepository.findAllByItemId_Id(item.getId());
+        Comment last = firstPage.get(1);
+        List<Comment> secondPage = commentRepository.findNewestWithAuthorByItemIdBefore(
+                item.getId(),
+                last.getCreated(),
+                last.getId(),
+                pageable
+        );
 
-        int expectedSize = 1;
-        int actualSize = expectedCommentList.size();
-        assertEquals(expectedSize, actualSize);
-        assertThat(comment).isIn(expectedCommentList);
+        assertEquals(List.of(comments.get(0)), secondPage);
     }
-}
\ No newline at end of file
+}
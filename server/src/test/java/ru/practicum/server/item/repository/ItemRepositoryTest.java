@@ -7,15 +7,24 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.ItemDetailView;
+import ru.practicum.server.item.dto.ItemOwnershipView;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.model.ItemStats;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -25,8 +34,14 @@ class ItemRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemStatsRepository itemStatsRepository;
     private User user1;
+    private User user2;
     private Item item1;
+    private Item item2;
 
     @BeforeEach
     void setUp() {
@@ -34,7 +49,7 @@ class ItemRepositoryTest {
         user1.setName("user1");
         user1.setEmail("user1@ya.ru");
 
-        User user2 = new User();
+        user2 = new User();
         user2.setName("user2");
         user2.setEmail("user2@ya.ru");
 
@@ -44,7 +59,7 @@ class ItemRepositoryTest {
         item1.setOwner(user1);
         item1.setAvailable(true);
 
-        Item item2 = new Item();
+        item2 = new Item();
         item2.setName("item2");
         item2.setDescription("disco item2");
         item2.setOwner(user2);
@@ -56,20 +71,6 @@ class ItemRepositoryTest {
         itemRepository.save(item2);
     }
 
-    @Test
-    void findByOwnerIdAndIdIs() {
-        List<Item> items = itemRepository.findAll();
-        int expectedSize = 2;
-        int actualSize = items.size();
-
-        assertEquals(expectedSize, actualSize);
-
-        Optional<Item> actualItem = itemRepository.findByOwnerIdAndIdIs(user1.getId(), item1.getId());
-
-        assertTrue(actualItem.isPresent());
-        assertEquals(item1, actualItem.get());
-    }
-
     @Test
     void findAllByOwnerId() {
         List<Item> items = itemRepository.findAll();
@@ -85,6 +86,34 @@ class ItemRepositoryTest {
         assertThat(item1).isIn(pages);
     }
 
+    @Test
+    void searchAvailableFree() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        bookingRepository.save(getBooking(item1, start, BookingStatus.APPROVED));
+        bookingRepository.save(getBooking(item2, start, BookingStatus.WAITING));
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        List<Item> overlapping = itemRepository.searchAvailableFree(
+                "DISCO", start.plusHours(1), start.plusHours(3), pageable);
+        List<Item> touching = itemRepository.searchAvailableFree(
+                "DISCO", start.plusHours(2), start.plusHours(3), pageable);
+
+        assertEquals(List.of(item2), overlapping);
+        assertEquals(List.of(item1, item2), touching);
+        assertTrue(itemRepository.searchAvailableFree("%", start, start.plusHours(1), pageable).isEmpty());
+    }
+
+    @Test
+    void findAllFreeByIdIn() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingRepository.save(getBooking(item1, start, BookingStatus.APPROVED));
+
+        List<Item> items = itemRepository.findAllFreeByIdIn(
+                List.of(item1.getId(), item2.getId()), start, start.plusHours(1));
+
+        assertEquals(List.of(item2), items);
+    }
+
     @Test
     void findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue() {
         String search = item1.getName().toUpperCase();
@@ -106,4 +135,93 @@ class ItemRepositoryTest {
 
         assertThat(item1).isIn(pages);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findItemDetails() {
+        List<ItemDetailView> rows = itemRepository.findItemDetails(
+                List.of(item1.getId()),
+                user1.getId(),
+                LocalDateTime.now()
+        );
+
+        assertEquals(1, rows.size());
+        assertEquals(item1.getId(), rows.get(0).getId());
+        assertEquals(item1.getName(), rows.get(0).getName());
+        assertTrue(rows.get(0).getAvailable());
+        assertNull(rows.get(0).getBookingId());
+    }
+
+    @Test
+    void findItemDetails_whenLastBookingArchived_thenStillReturned() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking archived = getBooking(item1, now.minusDays(200), BookingStatus.APPROVED);
+        archived.setArchived(true);
+        bookingRepository.save(archived);
+
+        List<ItemDetailView> rows = itemRepository.findItemDetails(List.of(item1.getId()), user1.getId(), now);
+
+        assertEquals(1, rows.size());
+        assertEquals(archived.getId(), rows.get(0).getBookingId());
+    }
+
+    @Test
+    void findAllByOwnerIdAndIdGreaterThan() {
+        Item item3 = new Item();
+        item3.setName("item3");
+        item3.setDescription("disco item3");
+        item3.setOwner(user1);
+        item3.setAvailable(true);
+        itemRepository.save(item3);
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        assertEquals(List.of(item1, item3),
+                itemRepository.findAllByOwnerIdAndIdGreaterThan(user1.getId(), 0, pageable));
+        assertEquals(List.of(item3),
+                itemRepository.findAllByOwnerIdAndIdGreaterThan(user1.getId(), item1.getId(), pageable));
+    }
+
+    @Test
+    void findOwnershipById() {
+        Optional<ItemOwnershipView> ownership = itemRepository.findOwnershipById(item1.getId());
+
+        assertTrue(ownership.isPresent());
+        assertEquals(user1.getId(), ownership.get().getOwnerId());
+        assertTrue(ownership.get().getAvailable());
+        assertEquals(1, itemRepository.findOwnershipAfter(item1.getId(), PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void insertAllWithStats() {
+        Item item3 = new Item();
+        item3.setName("item3");
+        item3.setDescription("disco item3");
+        item3.setOwner(user1);
+        item3.setAvailable(true);
+        Item item4 = new Item();
+        item4.setName("item4");
+        item4.setDescription("disco item4");
+        item4.setOwner(user1);
+        item4.setAvailable(false);
+
+        itemRepository.insertAllWithStats(List.of(item3, item4));
+
+        assertTrue(item3.getId() > item2.getId());
+        assertEquals(item3.getId() + 1, item4.getId());
+        Item actual = itemRepository.findById(item4.getId()).orElseThrow();
+        assertEquals("item4", actual.getName());
+        assertEquals(user1.getId(), actual.getOwner().getId());
+        ItemStats stats = itemStatsRepository.findById(item4.getId()).orElseThrow();
+        assertEquals(user1.getId(), stats.getOwnerId());
+        assertEquals(0, stats.getWaiting());
+    }
+
+    private Booking getBooking(Item item, LocalDateTime start, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(user2);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(2));
+        booking.setStatus(status);
+        return booking;
+    }
+}
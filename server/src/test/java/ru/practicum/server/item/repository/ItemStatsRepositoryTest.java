@@ -0,0 +1,71 @@
+package ru.practicum.server.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.server.item.model.ItemStats;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+class ItemStatsRepositoryTest {
+    @Autowired
+    private ItemStatsRepository itemStatsRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private ItemStats stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = itemStatsRepository.save(new ItemStats(1, 10));
+        itemStatsRepository.save(new ItemStats(2, 20));
+        itemStatsRepository.save(new ItemStats(3, 10));
+    }
+
+    @Test
+    void findAllByOwnerId() {
+        List<ItemStats> ownerStats = itemStatsRepository.findAllByOwnerId(10, PageRequest.of(0, 10, Sort.by("itemId")));
+
+        assertEquals(List.of(1L, 3L), ownerStats.stream().map(ItemStats::getItemId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllForUpdate() {
+        List<ItemStats> locked = itemStatsRepository.findAllForUpdate(List.of(3L, 1L, 99L));
+
+        assertEquals(List.of(1L, 3L), locked.stream().map(ItemStats::getItemId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void incrementsAppliedInPlace() {
+        itemStatsRepository.incrementWaiting(1);
+        itemStatsRepository.incrementWaiting(1);
+        itemStatsRepository.incrementWaiting(1);
+        itemStatsRepository.recordApproved(1, 3600);
+        itemStatsRepository.recordRejected(1);
+        itemStatsRepository.incrementComments(1);
+        entityManager.clear();
+
+        ItemStats actual = itemStatsRepository.findById(stats.getItemId()).orElseThrow();
+
+        assertEquals(1, actual.getWaiting());
+        assertEquals(1, actual.getApproved());
+        assertEquals(1, actual.getRejected());
+        assertEquals(3600, actual.getBookedSeconds());
+        assertEquals(1, actual.getComments());
+    }
+
+    @Test
+    void incrementWaiting_whenStatsMissing_thenNothingUpdated() {
+        assertEquals(0, itemStatsRepository.incrementWaiting(99));
+    }
+}
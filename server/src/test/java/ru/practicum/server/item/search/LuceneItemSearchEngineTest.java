@@ -0,0 +1,170 @@
+package ru.practicum.server.item.search;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LuceneItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @TempDir
+    Path indexPath;
+    private LuceneItemSearchEngine searchEngine;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        searchEngine = new LuceneItemSearchEngine(itemRepository, indexPath);
+        drill = getItem(1, "Drill", "Cordless drill with battery", true);
+        saw = getItem(2, "Saw", "Hand saw for wood", true);
+        searchEngine.index(drill);
+        searchEngine.index(saw);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchEngine.close();
+    }
+
+    @Test
+    void search_whenTextMatchesName_thenReturnedItem() {
+        when(itemRepository.findAllById(List.of(drill.getId()))).thenReturn(List.of(drill));
+
+        List<Item> actualList = searchEngine.search("DRILL", PageRequest.of(0, 10));
+
+        assertEquals(List.of(drill), actualList);
+    }
+
+    @Test
+    void search_whenTextMisspelled_thenReturnedItemByFuzzyMatch() {
+        when(itemRepository.findAllById(List.of(saw.getId()))).thenReturn(List.of(saw));
+
+        List<Item> actualList = searchEngine.search("wod", PageRequest.of(0, 10));
+
+        assertEquals(List.of(saw), actualList);
+    }
+
+    @Test
+    void search_whenItemUpdatedToUnavailable_thenNotReturned() {
+        drill.setAvailable(false);
+        searchEngine.index(drill);
+
+        when(itemRepository.findAllById(List.of())).thenReturn(List.of());
+
+        assertTrue(searchEngine.search("drill", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void searchFree_whenMatchedItemBookedInWindow_thenFilteredByRepository() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        when(itemRepository.findAllFreeByIdIn(List.of(drill.getId()), start, end)).thenReturn(List.of());
+
+        assertTrue(searchEngine.searchFree("drill", start, end, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void searchFree_whenFirstHitsBooked_thenPageFilledFromFollowingHits() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        List<Item> hammers = new ArrayList<>();
+        for (long id = 10; id < 160; id++) {
+            Item hammer = getItem(id, "Hammer", "Steel hammer", true);
+            searchEngine.index(hammer);
+            hammers.add(hammer);
+        }
+        when(itemRepository.findAllById(anyList())).thenReturn(hammers);
+        List<Item> hits = searchEngine.search("hammer", PageRequest.of(0, hammers.size()));
+        List<Item> booked = hits.subList(0, 120);
+        when(itemRepository.findAllFreeByIdIn(anyList(), eq(start), eq(end))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return hammers.stream()
+                    .filter(hammer -> ids.contains(hammer.getId()) && !booked.contains(hammer))
+                    .collect(Collectors.toList());
+        });
+
+        List<Item> firstPage = searchEngine.searchFree("hammer", start, end, PageRequest.of(0, 10));
+        List<Item> secondPage = searchEngine.searchFree("hammer", start, end, PageRequest.of(1, 10));
+        List<Item> thirdPage = searchEngine.searchFree("hammer", start, end, PageRequest.of(3, 10));
+
+        assertEquals(hits.subList(120, 130), firstPage);
+        assertEquals(hits.subList(130, 140), secondPage);
+        assertTrue(thirdPage.isEmpty());
+    }
+
+    @Test
+    void search_whenTextHasNoTerms_thenReturnedEmptyList() {
+        assertTrue(searchEngine.search("  ", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void rebuild_whenInvoked_thenIndexReloadedFromRepository() {
+        Item hammer = getItem(3, "Hammer", "Steel hammer", true);
+
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(hammer)));
+        when(itemRepository.findAllById(anyList())).thenReturn(List.of(hammer));
+
+        assertEquals(1, searchEngine.rebuild());
+        assertEquals(List.of(hammer), searchEngine.search("hammer", PageRequest.of(0, 10)));
+        assertTrue(searchEngine.search("drill", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void bootstrap_whenIndexNotEmpty_thenRebuiltFromRepository() {
+        Item hammer = getItem(1, "Hammer", "Steel hammer", true);
+
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(hammer)));
+
+        searchEngine.bootstrap();
+
+        assertTrue(searchEngine.search("drill", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void commit_whenItemsIndexed_thenVisibleToNewReader() throws IOException {
+        assertFalse(DirectoryReader.indexExists(FSDirectory.open(indexPath)));
+
+        searchEngine.commit();
+
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(indexPath))) {
+            assertEquals(2, reader.numDocs());
+        }
+    }
+
+    private Item getItem(long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
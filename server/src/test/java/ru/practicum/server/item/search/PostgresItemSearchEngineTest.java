@@ -0,0 +1,36 @@
+package ru.practicum.server.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private PostgresItemSearchEngine searchEngine;
+
+    @Test
+    void search_whenInvoked_thenPatternIsLowerCasedAndEscaped() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        Item item = new Item();
+        String text = "Drill_100%";
+
+        when(itemRepository.searchAvailable(text, "drill\\_100\\%", pageable)).thenReturn(List.of(item));
+
+        List<Item> actualList = searchEngine.search(text, pageable);
+
+        assertEquals(List.of(item), actualList);
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.server.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.index.ItemOwnershipIndex;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.search.LikeItemSearchEngine;
+import ru.practicum.server.request.feed.RequestFeed;
+import ru.practicum.server.request.service.RequestServiceImpl;
+import ru.practicum.server.user.index.UserExistenceIndex;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Import({
+        ItemServiceImpl.class,
+        UserServiceImpl.class,
+        UserExistenceIndex.class,
+        RequestServiceImpl.class,
+        RequestFeed.class,
+        LikeItemSearchEngine.class,
+        ItemOwnershipIndex.class,
+        BookingIntervalIndex.class
+})
+class ItemServiceImplIntegrationTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@ya.ru");
+        userRepository.save(owner);
+
+        User booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@ya.ru");
+        userRepository.save(booker);
+
+        for (int i = 0; i < 100; i++) {
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description" + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+
+            bookingRepository.save(getBooking(item, booker, LocalDateTime.now().minusDays(2)));
+            bookingRepository.save(getBooking(item, booker, LocalDateTime.now().plusDays(2)));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAll_whenPageSizeGrows_thenStatementCountStaysConstant() {
+        long smallPageStatements = countStatements(10);
+        long largePageStatements = countStatements(100);
+
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void get_whenItemHasBookingsAndComments_thenLoadedInConstantStatements() {
+        Item item = itemRepository.findAllByOwnerId(owner.getId(), PageRequest.of(0, 1)).getContent().get(0);
+        for (int i = 0; i < 20; i++) {
+            User author = new User();
+            author.setName("author" + i);
+            author.setEmail("author" + i + "@ya.ru");
+            userRepository.save(author);
+
+            Comment comment = new Comment();
+            comment.setText("comment" + i);
+            comment.setItemId(item);
+            comment.setAuthorId(author);
+            comment.setCreated(LocalDateTime.now());
+            commentRepository.save(comment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        ItemDto itemDto = itemService.get(new UserPrincipal(owner.getId()), item.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(10, itemDto.getComments().size());
+        assertEquals(20, itemDto.getCommentsCount());
+        assertNotNull(itemDto.getLastBooking());
+        assertNotNull(itemDto.getNextBooking());
+    }
+
+    private long countStatements(int size) {
+        statistics.clear();
+        List<ItemDto> items = itemService.getAll(new UserPrincipal(owner.getId()), PageRequest.of(0, size, Sort.by("id")));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(size, items.size());
+        items.forEach(itemDto -> {
+            assertNotNull(itemDto.getLastBooking());
+            assertNotNull(itemDto.getNextBooking());
+        });
+        entityManager.clear();
+
+        return statements;
+    }
+
+    private Booking getBooking(Item item, User booker, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(1));
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+}
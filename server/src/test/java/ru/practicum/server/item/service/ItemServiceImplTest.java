@@ -11,36 +11,63 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.server.booking.enums.BookingStatus;
 import ru.practicum.server.booking.exception.WrongOwnerItemException;
+import ru.practicum.server.booking.index.BookingIntervalIndex;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.item.dto.AvailabilityIntervalDto;
+import ru.practicum.server.item.dto.BookingItemView;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
+import ru.practicum.server.item.dto.ItemDetailView;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemStatsDto;
 import ru.practicum.server.item.exception.BadDataItemException;
 import ru.practicum.server.item.exception.ItemNotAvailableException;
 import ru.practicum.server.item.exception.ItemNotFoundException;
+import ru.practicum.server.item.index.ItemOwnershipIndex;
 import ru.practicum.server.item.mapper.CommentMapper;
 import ru.practicum.server.item.mapper.ItemMapper;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.model.ItemStats;
 import ru.practicum.server.item.repository.CommentRepository;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.repository.ItemStatsRepository;
+import ru.practicum.server.item.search.ItemSearchEngine;
+import ru.practicum.server.request.feed.RequestFeed;
 import ru.practicum.server.request.service.RequestServiceImpl;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserServiceImpl;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,7 +81,19 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
     @Mock
+    private ItemStatsRepository itemStatsRepository;
+    @Mock
     private RequestServiceImpl requestService;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemOwnershipIndex itemOwnershipIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private EntityManager entityManager;
     @InjectMocks
     private ItemServiceImpl itemService;
     @Captor
@@ -75,9 +114,10 @@ class ItemServiceImplTest {
         when(userService.get(owner.getId())).thenReturn(UserMapper.toUserDto(owner));
         when(itemRepository.save(item)).thenReturn(item);
 
-        ItemDto actualItemDto = itemService.create(owner.getId(), ItemMapper.toItemDto(item));
+        ItemDto actualItemDto = itemService.create(new UserPrincipal(owner.getId()), ItemMapper.toItemDto(item));
 
         assertEquals(ItemMapper.toItemDto(item), actualItemDto);
+        verify(itemStatsRepository).save(new ItemStats(item.getId(), owner.getId()));
     }
 
     @Test
@@ -89,8 +129,9 @@ class ItemServiceImplTest {
         when(requestService.existsById(item.getRequestId())).thenReturn(true);
 
         ItemDto expectedItemDto = ItemMapper.toItemDto(item);
-        ItemDto actualItemDto = itemService.create(owner.getId(), ItemMapper.toItemDto(item));
+        ItemDto actualItemDto = itemService.create(new UserPrincipal(owner.getId()), ItemMapper.toItemDto(item));
         assertEquals(expectedItemDto, actualItemDto);
+        verify(requestFeed).putItem(expectedItemDto);
     }
 
     @Test
@@ -99,11 +140,11 @@ class ItemServiceImplTest {
         newItem.setName("new");
         newItem.setDescription("new desc");
 
-        when(itemRepository.findByOwnerIdAndIdIs(owner.getId(), item.getId()))
-                .thenReturn(Optional.of(item));
+        when(itemOwnershipIndex.isOwner(item.getId(), owner.getId())).thenReturn(true);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         when(itemRepository.save(newItem)).thenReturn(newItem);
 
-        itemService.update(owner.getId(), ItemMapper.toItemDto(newItem), item.getId());
+        itemService.update(new UserPrincipal(owner.getId()), ItemMapper.toItemDto(newItem), item.getId());
         verify(itemRepository).save(itemArgumentCaptor.capture());
 
         Item expectedItem = itemArgumentCaptor.getValue();
@@ -116,32 +157,35 @@ class ItemServiceImplTest {
         int wrongOwnerId = 2;
 
         assertThrows(WrongOwnerItemException.class,
-                () -> itemService.update(wrongOwnerId, ItemMapper.toItemDto(item), item.getId()));
+                () -> itemService.update(new UserPrincipal(wrongOwnerId), ItemMapper.toItemDto(item), item.getId()));
     }
 
     @Test
     void get_whenItemIdNotValid_thenItemNotFoundExceptionThrow() {
         long itemId = 0;
 
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findItemDetails(eq(List.of(itemId)), eq(owner.getId()), any())).thenReturn(List.of());
 
         assertThrows(ItemNotFoundException.class,
-                () -> itemService.get(owner.getId(), itemId));
+                () -> itemService.get(new UserPrincipal(owner.getId()), itemId));
     }
 
     @Test
     void get_whenItemIdValid_thenReturnedItemDto() {
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findBookingByItemIdAndItemOwnerIdAndStatus(
-                        item.getId(),
-                        owner.getId(),
-                        BookingStatus.APPROVED)
-        ).thenReturn(List.of(booking));
+        Comment comment = new Comment();
+        comment.setText("comment");
+        comment.setAuthorId(getUser(3));
+
+        when(itemRepository.findItemDetails(eq(List.of(item.getId())), eq(owner.getId()), any()))
+                .thenReturn(List.of(getItemDetailView(booking)));
+        when(commentRepository.findNewestWithAuthorByItemId(item.getId(), PageRequest.of(0, 10)))
+                .thenReturn(List.of(comment));
 
         ItemDto expectedItemDto = ItemMapper.toItemDto(item);
         expectedItemDto.setNextBooking(ItemMapper.toBookingItemDto(booking));
-        ItemDto actualItemDto = itemService.get(owner.getId(), item.getId());
+        expectedItemDto.setComments(List.of(CommentMapper.toCommentDto(comment)));
+        expectedItemDto.setCommentsCount(25);
+        ItemDto actualItemDto = itemService.get(new UserPrincipal(owner.getId()), item.getId());
         assertEquals(expectedItemDto, actualItemDto);
     }
 
@@ -153,18 +197,44 @@ class ItemServiceImplTest {
         when(itemRepository.findAllByOwnerId(owner.getId(), pageable)).thenReturn(pageList);
 
         List<ItemDto> expectedList = ItemMapper.listToItemDto(pageList.toList());
-        List<ItemDto> actualList = itemService.getAll(owner.getId(), pageable);
+        List<ItemDto> actualList = itemService.getAll(new UserPrincipal(owner.getId()), pageable);
 
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getAll_whenItemsHaveBookings_thenLastAndNextResolvedInOneQuery() {
+        Item otherItem = getItem();
+        otherItem.setId(2);
+        Booking lastBooking = getBooking();
+        lastBooking.setId(2);
+        lastBooking.setItem(otherItem);
+        lastBooking.setStart(LocalDateTime.now().minusSeconds(600));
+        lastBooking.setEnd(LocalDateTime.now().minusSeconds(300));
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        when(itemRepository.findAllByOwnerId(owner.getId(), pageable))
+                .thenReturn(new PageImpl<>(List.of(item, otherItem)));
+        when(bookingRepository
+                .findLastAndNextApprovedBookings(eq(List.of(item.getId(), otherItem.getId())), eq(owner.getId()), any())
+        ).thenReturn(List.of(getBookingItemView(booking), getBookingItemView(lastBooking)));
+
+        List<ItemDto> actualList = itemService.getAll(new UserPrincipal(owner.getId()), pageable);
+
+        assertEquals(ItemMapper.toBookingItemDto(booking), actualList.get(0).getNextBooking());
+        assertNull(actualList.get(0).getLastBooking());
+        assertEquals(ItemMapper.toBookingItemDto(lastBooking), actualList.get(1).getLastBooking());
+        assertNull(actualList.get(1).getNextBooking());
+        verify(bookingRepository, times(1)).findLastAndNextApprovedBookings(any(), anyLong(), any());
+    }
+
     @Test
     void search_whenTextIsBlank_ReturnedEmptyList() {
         PageRequest pageable = PageRequest.of(0, 10);
         String text = "";
 
         List<ItemDto> expectedList = new ArrayList<>();
-        List<ItemDto> actualList = itemService.search(owner.getId(), text, pageable);
+        List<ItemDto> actualList = itemService.search(new UserPrincipal(owner.getId()), text, null, null, pageable);
 
         assertEquals(expectedList, actualList);
     }
@@ -174,17 +244,39 @@ class ItemServiceImplTest {
         PageRequest pageable = PageRequest.of(0, 10);
         String text = "new";
 
-        when(itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(
-                        text, text, pageable)
-        ).thenReturn(new PageImpl<>(List.of(item)));
+        when(itemSearchEngine.search(text, pageable)).thenReturn(List.of(item));
 
         List<ItemDto> expectedList = List.of(ItemMapper.toItemDto(item));
-        List<ItemDto> actualList = itemService.search(owner.getId(), text, pageable);
+        List<ItemDto> actualList = itemService.search(new UserPrincipal(owner.getId()), text, null, null, pageable);
 
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void search_whenWindowGiven_thenReturnedItemsFreeInWindow() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        String text = "new";
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+
+        when(itemSearchEngine.searchFree(text, start, end, pageable)).thenReturn(List.of(item));
+
+        List<ItemDto> actualList = itemService.search(new UserPrincipal(owner.getId()), text, start, end, pageable);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item)), actualList);
+        verify(itemSearchEngine, never()).search(any(), any());
+    }
+
+    @Test
+    void search_whenWindowHasNoEnd_thenBadDataItemExceptionThrow() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(BadDataItemException.class,
+                () -> itemService.search(new UserPrincipal(owner.getId()), "new", start, null, pageable));
+        verifyNoInteractions(itemSearchEngine);
+    }
+
     @Test
     void addComment_whenItemIdNotValid_thenItemNotFoundExceptionThrow() {
         long itemId = 999;
@@ -193,7 +285,7 @@ class ItemServiceImplTest {
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         assertThrows(ItemNotFoundException.class,
-                () -> itemService.addComment(itemId, userId, new Comment()));
+                () -> itemService.addComment(itemId, new UserPrincipal(userId), new Comment()));
 
     }
 
@@ -206,17 +298,20 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
-        when(bookingRepository
-                .findAllByBookerIdAndEndBeforeAndStatus(anyLong(), any(), any())
-        )
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(owner.getId()), eq(item.getId()), eq(BookingStatus.APPROVED), any()
+        ))
+                .thenReturn(true);
 
         when(commentRepository.save(comment)).thenReturn(comment);
 
-        CommentDto actualCommentDto = itemService.addComment(item.getId(), owner.getId(), comment);
+        CommentDto actualCommentDto = itemService.addComment(item.getId(), new UserPrincipal(owner.getId()), comment);
         CommentDto expectedCommentDto = CommentMapper.toCommentDto(comment);
 
         assertEquals(expectedCommentDto, actualCommentDto);
+        verify(itemStatsRepository).incrementComments(item.getId());
+        verify(bookingRepository, times(1)).existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                anyLong(), anyLong(), any(), any());
     }
 
     @Test
@@ -229,13 +324,100 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
-        when(bookingRepository
-                .findAllByBookerIdAndEndBeforeAndStatus(anyLong(), any(), any())
-        )
-                .thenReturn(List.of());
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                anyLong(), anyLong(), any(), any()
+        ))
+                .thenReturn(false);
+
+        assertThrows(BadDataItemException.class,
+                () -> itemService.addComment(item.getId(), new UserPrincipal(owner.getId()), comment));
+        verify(itemStatsRepository, never()).incrementComments(anyLong());
+    }
+
+    @Test
+    void getStats_whenInvoked_thenReturnedStatsWithUtilizationInDays() {
+        ItemStats stats = new ItemStats(item.getId(), owner.getId());
+        stats.setApproved(2);
+        stats.setBookedSeconds(36 * 60 * 60);
+        stats.setComments(1);
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("itemId"));
+
+        when(itemStatsRepository.findAllByOwnerId(owner.getId(), pageable)).thenReturn(List.of(stats));
+
+        List<ItemStatsDto> actualStats = itemService.getStats(new UserPrincipal(owner.getId()), pageable);
+
+        assertEquals(1, actualStats.size());
+        assertEquals(item.getId(), actualStats.get(0).getItemId());
+        assertEquals(2, actualStats.get(0).getApproved());
+        assertEquals(1.5, actualStats.get(0).getUtilizationDays());
+        assertEquals(1, actualStats.get(0).getComments());
+    }
+
+    @Test
+    void getComments_whenCursorGiven_thenReturnedCommentsBeforeCursor() {
+        LocalDateTime created = LocalDateTime.now();
+        Comment comment = new Comment();
+        comment.setText("comment");
+        comment.setAuthorId(getUser(3));
+        comment.setCreated(created.minusDays(1));
+
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(commentRepository.findNewestWithAuthorByItemIdBefore(item.getId(), created, 5, PageRequest.of(0, 10)))
+                .thenReturn(List.of(comment));
+
+        List<CommentDto> actualComments = itemService.getComments(new UserPrincipal(owner.getId()), item.getId(), created, 5, 10);
+
+        assertEquals(List.of(CommentMapper.toCommentDto(comment)), actualComments);
+    }
+
+    @Test
+    void getComments_whenItemIdNotValid_thenItemNotFoundExceptionThrow() {
+        long itemId = 0;
+
+        when(itemRepository.existsById(itemId)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class,
+                () -> itemService.getComments(new UserPrincipal(owner.getId()), itemId, null, 0, 10));
+    }
+
+    @Test
+    void getAvailability_whenBookingInWindow_thenFreeIntervalsAroundIt() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusHours(10);
+        AvailabilityIntervalDto occupied = new AvailabilityIntervalDto(from.plusHours(2), from.plusHours(4));
+
+        when(itemOwnershipIndex.isAvailable(item.getId())).thenReturn(true);
+        when(bookingIntervalIndex.getOccupied(item.getId(), from, to)).thenReturn(List.of(occupied));
+
+        ItemAvailabilityDto availability = itemService.getAvailability(new UserPrincipal(owner.getId()), item.getId(), from, to);
+
+        assertEquals(List.of(occupied), availability.getOccupied());
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from, from.plusHours(2)),
+                new AvailabilityIntervalDto(from.plusHours(4), to)
+        ), availability.getFree());
+    }
+
+    @Test
+    void getAvailability_whenItemNotAvailable_thenNoFreeIntervals() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusHours(10);
+
+        when(itemOwnershipIndex.isAvailable(item.getId())).thenReturn(false);
+        when(bookingIntervalIndex.getOccupied(item.getId(), from, to)).thenReturn(List.of());
+
+        ItemAvailabilityDto availability = itemService.getAvailability(new UserPrincipal(owner.getId()), item.getId(), from, to);
+
+        assertEquals(List.of(), availability.getFree());
+    }
+
+    @Test
+    void getAvailability_whenWindowEndsBeforeStart_thenBadDataItemExceptionThrow() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
 
         assertThrows(BadDataItemException.class,
-                () -> itemService.addComment(item.getId(), owner.getId(), comment));
+                () -> itemService.getAvailability(new UserPrincipal(owner.getId()), item.getId(), from, from.minusHours(1)));
+        verifyNoInteractions(bookingIntervalIndex);
     }
 
     @Test
@@ -259,13 +441,60 @@ class ItemServiceImplTest {
     @Test
     void getAvailableItem_whenAvailableFalse_thenItemNotAvailableExceptionThrow() {
         item.setAvailable(false);
-
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         assertThrows(ItemNotAvailableException.class,
                 () -> itemService.getAvailableItem(item.getId()));
     }
 
+    @Test
+    void export_whenInvoked_thenEveryItemPassedToConsumerAndDetached() {
+        when(itemRepository.streamAllByOwnerId(owner.getId())).thenReturn(Stream.of(item));
+        List<ItemDto> exported = new ArrayList<>();
+
+        itemService.export(new UserPrincipal(owner.getId()), exported::add);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item)), exported);
+        verify(entityManager).detach(item);
+    }
+
+    @Test
+    void importAll_whenRowsGiven_thenValidItemsInsertedAndIndexed() {
+        when(userService.get(owner.getId())).thenReturn(UserMapper.toUserDto(owner));
+        when(requestService.findExistingIds(Set.of(5L, 6L))).thenReturn(Set.of(5L));
+        doAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            assertEquals(List.of(5L, 0L), items.stream().map(Item::getRequestId).collect(Collectors.toList()));
+            items.get(0).setId(10);
+            items.get(1).setId(11);
+            return null;
+        }).when(itemRepository).insertAllWithStats(anyList());
+        ItemDto incomplete = getItemDto(0);
+        incomplete.setAvailable(null);
+
+        List<BulkRowResultDto> results = itemService.importAll(new UserPrincipal(owner.getId()), List.of(
+                new BulkRow<>(1, getItemDto(5)),
+                new BulkRow<>(2, getItemDto(6)),
+                new BulkRow<>(3, incomplete)
+        ));
+
+        assertEquals(List.of(
+                new BulkRowResultDto(3, 0, BulkRowOutcome.INVALID, "Required fields are missing"),
+                new BulkRowResultDto(1, 10, BulkRowOutcome.CREATED, null),
+                new BulkRowResultDto(2, 11, BulkRowOutcome.CREATED, null)
+        ), results);
+        verify(itemSearchEngine, times(2)).index(any());
+        verify(itemOwnershipIndex, times(2)).put(any());
+        verify(requestFeed, times(2)).putItem(any());
+    }
+
+    private ItemDto getItemDto(long requestId) {
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        itemDto.setId(0);
+        itemDto.setRequestId(requestId);
+        return itemDto;
+    }
+
     private User getUser(int id) {
         User user = new User();
         user.setId(id);
@@ -284,6 +513,89 @@ class ItemServiceImplTest {
         return item;
     }
 
+    private ItemDetailView getItemDetailView(Booking booking) {
+        return new ItemDetailView() {
+            @Override
+            public long getId() {
+                return item.getId();
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return item.getDescription();
+            }
+
+            @Override
+            public boolean getAvailable() {
+                return item.isAvailable();
+            }
+
+            @Override
+            public long getRequestId() {
+                return item.getRequestId();
+            }
+
+            @Override
+            public Long getBookingId() {
+                return booking.getId();
+            }
+
+            @Override
+            public LocalDateTime getBookingStart() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getBookingEnd() {
+                return booking.getEnd();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public long getCommentsCount() {
+                return 25;
+            }
+        };
+    }
+
+    private BookingItemView getBookingItemView(Booking booking) {
+        return new BookingItemView() {
+            @Override
+            public long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public long getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return booking.getEnd();
+            }
+
+            @Override
+            public long getBookerId() {
+                return booking.getBooker().getId();
+            }
+        };
+    }
+
     private Booking getBooking() {
         Booking booking = new Booking();
         booking.setId(1);
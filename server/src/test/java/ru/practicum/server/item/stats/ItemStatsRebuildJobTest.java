@@ -0,0 +1,114 @@
+package ru.practicum.server.item.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.server.booking.enums.BookingStatus;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.model.ItemStats;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.repository.ItemStatsRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@Import(ItemStatsRebuildJob.class)
+class ItemStatsRebuildJobTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private ItemStatsRebuildJob itemStatsRebuildJob;
+    @Autowired
+    private ItemStatsRepository itemStatsRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = getUser("owner");
+        booker = getUser("booker");
+
+        item = new Item();
+        item.setName("item");
+        item.setOwner(owner);
+        item.setAvailable(true);
+        itemRepository.save(item);
+
+        bookingRepository.save(getBooking(START, START.plusDays(2), BookingStatus.APPROVED));
+        bookingRepository.save(getBooking(START.plusDays(3), START.plusDays(3).plusHours(12), BookingStatus.APPROVED));
+        bookingRepository.save(getBooking(START.plusDays(5), START.plusDays(6), BookingStatus.REJECTED));
+        bookingRepository.save(getBooking(START.plusDays(7), START.plusDays(8), BookingStatus.WAITING));
+
+        Comment comment = new Comment();
+        comment.setItemId(item);
+        comment.setAuthorId(booker);
+        comment.setText("fine");
+        commentRepository.save(comment);
+    }
+
+    @Test
+    void rebuild_whenStatsMissing_thenCreatedFromHistory() {
+        assertEquals(1, itemStatsRebuildJob.rebuild());
+
+        ItemStats stats = itemStatsRepository.findById(item.getId()).orElseThrow();
+        assertEquals(owner.getId(), stats.getOwnerId());
+        assertEquals(1, stats.getWaiting());
+        assertEquals(2, stats.getApproved());
+        assertEquals(1, stats.getRejected());
+        assertEquals(60 * 60 * 60, stats.getBookedSeconds());
+        assertEquals(1, stats.getComments());
+    }
+
+    @Test
+    void rebuild_whenStatsDrifted_thenReconciled() {
+        ItemStats drifted = new ItemStats(item.getId(), owner.getId());
+        drifted.setWaiting(7);
+        drifted.setComments(3);
+        itemStatsRepository.save(drifted);
+
+        itemStatsRebuildJob.rebuild();
+
+        ItemStats stats = itemStatsRepository.findById(item.getId()).orElseThrow();
+        assertEquals(1, stats.getWaiting());
+        assertEquals(2, stats.getApproved());
+        assertEquals(1, stats.getComments());
+    }
+
+    private User getUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@ya.ru");
+        return userRepository.save(user);
+    }
+
+    private Booking getBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+}
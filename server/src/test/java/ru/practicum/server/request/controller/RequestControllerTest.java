@@ -11,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import ru.practicum.server.request.dto.RequestDto;
 import ru.practicum.server.request.service.RequestService;
+import ru.practicum.server.user.principal.UserPrincipal;
 
 import java.util.List;
 
@@ -28,9 +29,9 @@ class RequestControllerTest {
     void create_whenInvoked_thenResponseStatusOkWithRequestInBody() {
         int userId = 1;
         RequestDto expectedRequestDto = new RequestDto();
-        when(requestService.create(userId, new RequestDto())).thenReturn(expectedRequestDto);
+        when(requestService.create(new UserPrincipal(userId), new RequestDto())).thenReturn(expectedRequestDto);
 
-        ResponseEntity<RequestDto> response = requestController.create(userId, expectedRequestDto);
+        ResponseEntity<RequestDto> response = requestController.create(new UserPrincipal(userId), expectedRequestDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedRequestDto, response.getBody());
@@ -40,9 +41,9 @@ class RequestControllerTest {
     void getOwnerRequest_whenInvoked_thenResponseStatusOkWithRequestListInBody() {
         int userId = 1;
         List<RequestDto> expectedRequestDtoList = List.of(new RequestDto());
-        when(requestService.getOwnerRequests(userId)).thenReturn(expectedRequestDtoList);
+        when(requestService.getOwnerRequests(new UserPrincipal(userId))).thenReturn(expectedRequestDtoList);
 
-        ResponseEntity<List<RequestDto>> response = requestController.getOwnerRequest(userId);
+        ResponseEntity<List<RequestDto>> response = requestController.getOwnerRequest(new UserPrincipal(userId));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedRequestDtoList, response.getBody());
@@ -53,9 +54,9 @@ class RequestControllerTest {
         int userId = 1;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("created").descending());
         List<RequestDto> expectedRequestDtoList = List.of(new RequestDto());
-        when(requestService.getAll(userId, pageable)).thenReturn(expectedRequestDtoList);
+        when(requestService.getAll(new UserPrincipal(userId), pageable)).thenReturn(expectedRequestDtoList);
 
-        ResponseEntity<List<RequestDto>> response = requestController.getAll(userId, 0, 10);
+        ResponseEntity<List<RequestDto>> response = requestController.getAll(new UserPrincipal(userId), 0, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedRequestDtoList, response.getBody());
@@ -66,9 +67,9 @@ class RequestControllerTest {
         int userId = 1;
         int requestId = 1;
         RequestDto expectedRequestDto = new RequestDto();
-        when(requestService.get(userId, requestId)).thenReturn(expectedRequestDto);
+        when(requestService.get(new UserPrincipal(userId), requestId)).thenReturn(expectedRequestDto);
 
-        ResponseEntity<RequestDto> response = requestController.get(userId, requestId);
+        ResponseEntity<RequestDto> response = requestController.get(new UserPrincipal(userId), requestId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedRequestDto, response.getBody());
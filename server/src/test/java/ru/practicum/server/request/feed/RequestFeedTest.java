@@ -0,0 +1,144 @@
+package ru.practicum.server.request.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.RequestDto;
+import ru.practicum.server.request.model.Request;
+import ru.practicum.server.request.repository.RequestRepository;
+import ru.practicum.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestFeedTest {
+    private static final int CAPACITY = 4;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private RequestRepository requestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    private RequestFeed requestFeed;
+
+    @BeforeEach
+    void setUp() {
+        requestFeed = new RequestFeed(requestRepository, itemRepository, CAPACITY);
+    }
+
+    @Test
+    void findAll_whenBufferCoversPage_thenNewestForeignRequestsReturned() {
+        requestFeed.append(getRequestDto(1, 7));
+        requestFeed.append(getRequestDto(2, 8));
+        requestFeed.append(getRequestDto(3, 7));
+        requestFeed.append(getRequestDto(4, 8));
+
+        assertEquals(Optional.of(List.of(4L, 2L)), ids(requestFeed.findAll(7, 0, 2)));
+        assertEquals(Optional.of(List.of(2L)), ids(requestFeed.findAll(7, 1, 1)));
+        assertEquals(Optional.empty(), requestFeed.findAll(7, 1, 2));
+    }
+
+    @Test
+    void findAll_whenOldRequestsOverwritten_thenOnlyNewestKept() {
+        for (int i = 1; i <= CAPACITY + 2; i++) {
+            requestFeed.append(getRequestDto(i, 8));
+        }
+
+        assertEquals(Optional.of(List.of(6L, 5L, 4L, 3L)), ids(requestFeed.findAll(7, 0, CAPACITY)));
+        assertEquals(Optional.empty(), requestFeed.findAll(7, 0, CAPACITY + 1));
+    }
+
+    @Test
+    void findAllBefore_whenCursorInsideBuffer_thenOlderRequestsReturned() {
+        for (int i = 1; i <= CAPACITY; i++) {
+            requestFeed.append(getRequestDto(i, 8));
+        }
+
+        assertEquals(Optional.of(List.of(2L, 1L)), ids(requestFeed.findAllBefore(7, CREATED.plusMinutes(3), 3, 2)));
+        assertEquals(Optional.empty(), requestFeed.findAllBefore(7, CREATED.plusMinutes(2), 2, 2));
+    }
+
+    @Test
+    void putItem_whenRequestBuffered_thenItemSummaryReplaced() {
+        requestFeed.append(getRequestDto(1, 8));
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(10);
+        itemDto.setName("drill");
+        itemDto.setRequestId(1);
+
+        requestFeed.putItem(itemDto);
+        itemDto.setName("hammer");
+        requestFeed.putItem(itemDto);
+
+        List<ItemDto> items = requestFeed.findAll(7, 0, 1).orElseThrow().get(0).getItems();
+        assertEquals(1, items.size());
+        assertEquals("hammer", items.get(0).getName());
+    }
+
+    @Test
+    void warmUp_whenTableSmallerThanBuffer_thenShortPagesServed() {
+        User requestor = new User();
+        requestor.setId(8);
+        Request request = new Request();
+        request.setId(1);
+        request.setRequestor(requestor);
+        request.setCreated(CREATED);
+        Item item = new Item();
+        item.setId(10);
+        item.setRequestId(1);
+        when(requestRepository.findAll(PageRequest.of(0, CAPACITY, Sort.by("created", "id").descending())))
+                .thenReturn(new PageImpl<>(List.of(request)));
+        when(itemRepository.findAllByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
+
+        requestFeed.warmUp();
+
+        List<RequestDto> requests = requestFeed.findAll(7, 0, 10).orElseThrow();
+        assertEquals(1, requests.size());
+        assertEquals(1, requests.get(0).getItems().size());
+        assertEquals(Optional.of(List.of()), requestFeed.findAll(8, 0, 10));
+    }
+
+    @Test
+    void warmUp_whenRequestsAlreadyAppended_thenBufferKept() {
+        when(requestRepository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+        requestFeed.append(getRequestDto(1, 8));
+
+        requestFeed.warmUp();
+
+        verify(itemRepository, never()).findAllByRequestIdIn(any());
+        assertEquals(Optional.of(List.of(1L)), ids(requestFeed.findAll(7, 0, 1)));
+        assertEquals(Optional.empty(), requestFeed.findAll(7, 0, 2));
+    }
+
+    private static Optional<List<Long>> ids(Optional<List<RequestDto>> requests) {
+        return requests.map(list -> list.stream()
+                .map(RequestDto::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private static RequestDto getRequestDto(long id, long requestor) {
+        RequestDto requestDto = new RequestDto();
+        requestDto.setId(id);
+        requestDto.setRequestor(requestor);
+        requestDto.setDescription("request" + id);
+        requestDto.setCreated(CREATED.plusMinutes(id));
+        return requestDto;
+    }
+}
@@ -7,11 +7,13 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.server.request.model.Request;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -89,4 +91,29 @@ class RequestRepositoryTest {
         assertThat(request1).isNotIn(expectedReqPage.getContent());
         assertThat(request2).isIn(expectedReqPage.getContent());
     }
+
+    @Test
+    void findAllByRequestorIdIsNotBefore() {
+        request2.setCreated(request2.getCreated().truncatedTo(ChronoUnit.SECONDS));
+        requestRepository.save(request2);
+        Request request3 = new Request();
+        request3.setRequestor(request2.getRequestor());
+        request3.setDescription("descr");
+        request3.setCreated(request2.getCreated().minusSeconds(10));
+        requestRepository.save(request3);
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by("created", "id").descending());
+
+        List<Request> firstPage = requestRepository.findAllByRequestorIdIsNot(user1.getId(), pageRequest);
+
+        assertThat(firstPage).containsExactly(request2);
+
+        List<Request> secondPage = requestRepository.findAllByRequestorIdIsNotBefore(
+                user1.getId(),
+                request2.getCreated(),
+                request2.getId(),
+                pageRequest
+        );
+
+        assertThat(secondPage).containsExactly(request3);
+    }
 }
\ No newline at end of file
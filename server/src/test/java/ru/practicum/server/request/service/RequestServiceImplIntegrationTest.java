@@ -0,0 +1,166 @@
+package ru.practicum.server.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.RequestDto;
+import ru.practicum.server.request.feed.RequestFeed;
+import ru.practicum.server.request.repository.RequestRepository;
+import ru.practicum.server.user.index.UserExistenceIndex;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
+import ru.practicum.server.user.principal.UserPrincipalArgumentResolver;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shareit.request.feed.capacity=" + RequestServiceImplIntegrationTest.FEED_CAPACITY
+})
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        RequestServiceImpl.class,
+        RequestFeed.class,
+        UserServiceImpl.class,
+        UserExistenceIndex.class,
+        UserPrincipalArgumentResolver.class
+})
+class RequestServiceImplIntegrationTest {
+    static final int FEED_CAPACITY = 10;
+    private static final int REQUESTS = 100;
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserPrincipalArgumentResolver userPrincipalArgumentResolver;
+    @Autowired
+    private UserExistenceIndex userExistenceIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User requestor;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        requestor = new User();
+        requestor.setName("requestor");
+        requestor.setEmail("requestor@ya.ru");
+        userRepository.save(requestor);
+
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@ya.ru");
+        userRepository.save(owner);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            RequestDto request = new RequestDto();
+            request.setDescription("request" + i);
+            request = requestService.create(new UserPrincipal(requestor.getId()), request);
+
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description" + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            item.setRequestId(request.getId());
+            itemRepository.save(item);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getAll_whenPageFitsFeed_thenServedWithoutRequestQueries() {
+        PageRequest pageable = PageRequest.of(0, FEED_CAPACITY, Sort.by("created").descending());
+
+        List<RequestDto> requests = requestService.getAll(new UserPrincipal(owner.getId()), pageable);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(FEED_CAPACITY, requests.size());
+        assertEquals("request" + (REQUESTS - 1), requests.get(0).getDescription());
+    }
+
+    @Test
+    void getAll_whenPageHasHundredRequests_thenItemsLoadedInOneQuery() {
+        PageRequest pageable = PageRequest.of(0, REQUESTS, Sort.by("created").descending());
+
+        List<RequestDto> requests = requestService.getAll(new UserPrincipal(owner.getId()), pageable);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(REQUESTS, requests.size());
+        requests.forEach(requestDto -> assertEquals(1, requestDto.getItems().size()));
+    }
+
+    @Test
+    void getOwnerRequests_whenHundredRequests_thenItemsLoadedInOneQuery() {
+        List<RequestDto> requests = requestService.getOwnerRequests(new UserPrincipal(requestor.getId()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(REQUESTS, requests.size());
+        requests.forEach(requestDto -> assertEquals(1, requestDto.getItems().size()));
+    }
+
+    @Test
+    void create_whenUserNotConfirmedByIndex_thenUserLoadedOncePerRequest() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('late', 'late@ya.ru')");
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'late@ya.ru'", Long.class);
+        userExistenceIndex.put(userId);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(UserPrincipal.HEADER, String.valueOf(userId));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        statistics.clear();
+
+        try {
+            UserPrincipal principal = userPrincipalArgumentResolver.resolveArgument(
+                    null, null, new ServletWebRequest(request), null);
+            RequestDto requestDto = new RequestDto();
+            requestDto.setDescription("late request");
+            requestService.create(principal, requestDto);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -5,16 +5,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.dto.RequestDto;
 import ru.practicum.server.request.exception.RequestNotFoundException;
+import ru.practicum.server.request.feed.RequestFeed;
 import ru.practicum.server.request.mapper.RequestMapper;
 import ru.practicum.server.request.model.Request;
 import ru.practicum.server.request.repository.RequestRepository;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.principal.UserPrincipal;
 import ru.practicum.server.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,6 +35,10 @@ class RequestServiceImplTest {
     @Mock
     private RequestRepository requestRepository;
     @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
     private UserServiceImpl userService;
     @InjectMocks
     private RequestServiceImpl requestService;
@@ -54,10 +61,11 @@ class RequestServiceImplTest {
         when(requestRepository.save(request))
                 .thenReturn(request);
 
-        RequestDto actualRequestDto = requestService.create(userId, expectedRequestDto);
+        RequestDto actualRequestDto = requestService.create(new UserPrincipal(userId), expectedRequestDto);
 
         verify(requestRepository, times(1))
                 .save(request);
+        verify(requestFeed).append(actualRequestDto);
         assertEquals(expectedRequestDto, actualRequestDto);
     }
 
@@ -70,15 +78,26 @@ class RequestServiceImplTest {
         request.setId(1);
         request.setDescription("wow");
         request.setRequestor(user);
-        List<Request> requestsList = List.of(request);
-        List<RequestDto> expectedList = requestsList.stream()
-                .map(RequestMapper::toRequestDto)
-                .collect(Collectors.toList());
+        Request otherRequest = new Request();
+        otherRequest.setId(2);
+        otherRequest.setDescription("hmm");
+        otherRequest.setRequestor(user);
+        Item item = new Item();
+        item.setId(10);
+        item.setName("answer");
+        item.setRequestId(1);
+        List<Request> requestsList = List.of(request, otherRequest);
+        List<RequestDto> expectedList = List.of(
+                RequestMapper.toRequestDto(request, List.of(item)),
+                RequestMapper.toRequestDto(otherRequest)
+        );
 
         when(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId))
                 .thenReturn(requestsList);
+        when(itemRepository.findAllByRequestIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(item));
 
-        List<RequestDto> actualList = requestService.getOwnerRequests(userId);
+        List<RequestDto> actualList = requestService.getOwnerRequests(new UserPrincipal(userId));
 
         verify(requestRepository, times(1))
                 .findAllByRequestorIdOrderByCreatedDesc(userId);
@@ -97,21 +116,38 @@ class RequestServiceImplTest {
         request.setDescription("wow");
         request.setRequestor(user);
         List<Request> requestsList = List.of(request);
-        Page<Request> page = new PageImpl<>(requestsList);
         List<RequestDto> expectedList = requestsList.stream()
                 .map(RequestMapper::toRequestDto)
                 .collect(Collectors.toList());
 
-        when(requestRepository.findRequestsByRequestorIdIsNot(userId, pageable)).thenReturn(page);
+        when(requestFeed.findAll(userId, 0, 20)).thenReturn(Optional.empty());
+        when(requestRepository.findAllByRequestorIdIsNot(userId, pageable)).thenReturn(requestsList);
+        when(itemRepository.findAllByRequestIdIn(List.of(1L))).thenReturn(List.of());
 
-        List<RequestDto> actualList = requestService.getAll(userId, pageable);
+        List<RequestDto> actualList = requestService.getAll(new UserPrincipal(userId), pageable);
 
         verify(requestRepository, times(1))
-                .findRequestsByRequestorIdIsNot(userId, pageable);
+                .findAllByRequestorIdIsNot(userId, pageable);
 
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getAll_whenFeedCoversPage_thenRepositoryNotUsed() {
+        PageRequest pageable = PageRequest.of(0, 20);
+        long userId = 1;
+        RequestDto requestDto = new RequestDto();
+        requestDto.setId(1);
+        requestDto.setRequestor(2);
+
+        when(requestFeed.findAll(userId, 0, 20)).thenReturn(Optional.of(List.of(requestDto)));
+
+        List<RequestDto> actualList = requestService.getAll(new UserPrincipal(userId), pageable);
+
+        assertEquals(List.of(requestDto), actualList);
+        verify(requestRepository, never()).findAllByRequestorIdIsNot(userId, pageable);
+    }
+
     @Test
     void get_whenUserIdAndRequestIdValid_thenReturnedRequestDto() {
         long userId = 1;
@@ -126,11 +162,10 @@ class RequestServiceImplTest {
         request.setCreated(LocalDateTime.now());
         RequestDto expectedRequestDto = RequestMapper.toRequestDto(request);
 
-        when(userService.get(userId)).thenReturn(UserMapper.toUserDto(user));
-
         when(requestRepository.findById(requestId)).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(requestId))).thenReturn(List.of());
 
-        RequestDto actualRequestDto = requestService.get(userId, requestId);
+        RequestDto actualRequestDto = requestService.get(new UserPrincipal(userId), requestId);
 
         verify(requestRepository, times(1)).findById(requestId);
         assertEquals(expectedRequestDto, actualRequestDto);
@@ -140,16 +175,12 @@ class RequestServiceImplTest {
     @Test
     void get_whenRequestIdNotValid_thenRequestNotFoundExceptionThrow() {
         long userId = 1;
-        User user = new User();
-        user.setId(userId);
         long wrongRequestId = 100;
 
-        when(userService.get(userId)).thenReturn(UserMapper.toUserDto(user));
-
         when(requestRepository.findById(wrongRequestId)).thenReturn(Optional.empty());
 
         assertThrows(RequestNotFoundException.class,
-                () -> requestService.get(userId, wrongRequestId));
+                () -> requestService.get(new UserPrincipal(userId), wrongRequestId));
     }
 
     @Test
@@ -1,24 +1,49 @@
 package ru.practicum.server.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.server.bulk.BulkImporter;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
+import ru.practicum.server.export.NdjsonWriter;
+import ru.practicum.server.pagination.Cursor;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.service.UserService;
 
+import javax.validation.Validation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
     @Mock
     private UserService userService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private BulkImporter bulkImporter = new BulkImporter(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            100
+    );
     @InjectMocks
     private UserController userController;
 
@@ -60,14 +85,69 @@ class UserControllerTest {
     @Test
     void getAll_whenInvoked_thenResponseStatusOkWithUsersCollectionInBody() {
         List<UserDto> expectedUsersDto = List.of(new UserDto());
-        when(userService.getAll()).thenReturn(expectedUsersDto);
+        when(userService.getAll(PageRequest.of(0, 10, Sort.by("id")))).thenReturn(expectedUsersDto);
 
-        ResponseEntity<List<UserDto>> response = userController.getAll();
+        ResponseEntity<List<UserDto>> response = userController.getAll(0, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedUsersDto, response.getBody());
     }
 
+    @Test
+    void getAll_whenCursorGivenAndPageFull_thenNextCursorReturned() {
+        UserDto first = new UserDto();
+        first.setId(6);
+        UserDto second = new UserDto();
+        second.setId(7);
+        when(userService.getAll(5, 2)).thenReturn(List.of(first, second));
+
+        ResponseEntity<List<UserDto>> response = userController.getAll(0, 2, Cursor.encode(5));
+
+        assertEquals(List.of(first, second), response.getBody());
+        assertEquals(Cursor.encode(7), response.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void export_whenInvoked_thenUsersWrittenAsNdjson() throws IOException {
+        UserDto first = new UserDto();
+        first.setId(1);
+        UserDto second = new UserDto();
+        second.setId(2);
+        doAnswer(invocation -> {
+            NdjsonWriter<UserDto> writer = invocation.getArgument(0);
+            writer.accept(first);
+            writer.accept(second);
+            return null;
+        }).when(userService).export(any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        userController.export(response);
+
+        assertEquals(NdjsonWriter.CONTENT_TYPE, response.getContentType());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readValue(lines[0], UserDto.class).getId());
+        assertEquals(2, objectMapper.readValue(lines[1], UserDto.class).getId());
+    }
+
+    @Test
+    void importAll_whenInvoked_thenRowResultsWrittenAsNdjson() throws IOException {
+        when(userService.importAll(any())).thenAnswer(invocation -> {
+            List<BulkRow<UserDto>> rows = invocation.getArgument(0);
+            assertEquals("john@ya.ru", rows.get(0).getValue().getEmail());
+            return List.of(rows.get(0).created(5));
+        });
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("{\"name\":\"john\",\"email\":\"john@ya.ru\"}\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        userController.importAll(null, request, response);
+
+        assertEquals(NdjsonWriter.CONTENT_TYPE, response.getContentType());
+        BulkRowResultDto result = objectMapper.readValue(response.getContentAsString(), BulkRowResultDto.class);
+        assertEquals(new BulkRowResultDto(1, 5, BulkRowOutcome.CREATED, null), result);
+    }
+
     @Test
     void delete_whenInvoked_thenResponseStatusOkWithBooleanTrue() {
         int userId = 0;
@@ -0,0 +1,35 @@
+package ru.practicum.server.user.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongBloomFilterTest {
+    @Test
+    void mightContain_whenKeysPut_thenNoFalseNegatives() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+
+        for (long key = 1; key <= 10_000; key++) {
+            filter.put(key);
+        }
+
+        for (long key = 1; key <= 10_000; key++) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    void mightContain_whenKeysAbsent_thenFalsePositivesStayNearRate() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long key = 1; key <= 10_000; key++) {
+            filter.put(key);
+        }
+
+        int falsePositives = 0;
+        for (long key = 1_000_001; key <= 1_100_000; key++) {
+            if (filter.mightContain(key)) falsePositives++;
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.server.user.index;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Import(UserExistenceIndex.class)
+class UserExistenceIndexTest {
+    @Autowired
+    private UserExistenceIndex userExistenceIndex;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userExistenceIndex.warmUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void exists_whenUserNeverInserted_thenAnsweredWithoutQuery() {
+        assertFalse(userExistenceIndex.exists(Long.MAX_VALUE));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exists_whenUserSaved_thenConfirmedOnceAndCached() {
+        User user = saveUser();
+        statistics.clear();
+
+        assertTrue(userExistenceIndex.exists(user.getId()));
+        assertTrue(userExistenceIndex.exists(user.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exists_whenUserDeleted_thenNotFound() {
+        User user = saveUser();
+        assertTrue(userExistenceIndex.exists(user.getId()));
+
+        userRepository.delete(user);
+        entityManager.flush();
+
+        assertFalse(userExistenceIndex.exists(user.getId()));
+    }
+
+    private User saveUser() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail("user@ya.ru");
+        userRepository.save(user);
+        entityManager.flush();
+        return user;
+    }
+}
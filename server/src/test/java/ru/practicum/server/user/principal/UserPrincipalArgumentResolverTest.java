@@ -0,0 +1,105 @@
+package ru.practicum.server.user.principal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.server.user.exception.UserNotFoundException;
+import ru.practicum.server.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalArgumentResolverTest {
+    @Mock
+    private UserService userService;
+    @InjectMocks
+    private UserPrincipalArgumentResolver resolver;
+    private MockHttpServletRequest request;
+    private ServletWebRequest webRequest;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        webRequest = new ServletWebRequest(request);
+    }
+
+    @Test
+    void supportsParameter_whenPrincipalOrOtherType_thenOnlyPrincipalSupported() throws NoSuchMethodException {
+        assertTrue(resolver.supportsParameter(parameter(0)));
+        assertFalse(resolver.supportsParameter(parameter(1)));
+    }
+
+    @Test
+    void resolveArgument_whenHeaderValid_thenPrincipalWithUserId() throws Exception {
+        request.addHeader(UserPrincipal.HEADER, "7");
+
+        UserPrincipal principal = resolver.resolveArgument(parameter(0), null, webRequest, null);
+
+        assertEquals(new UserPrincipal(7), principal);
+        verify(userService).checkExists(7);
+    }
+
+    @Test
+    void resolveArgument_whenResolvedTwiceInRequest_thenUserCheckedOnce() throws Exception {
+        request.addHeader(UserPrincipal.HEADER, "7");
+
+        UserPrincipal first = resolver.resolveArgument(parameter(0), null, webRequest, null);
+        UserPrincipal second = resolver.resolveArgument(parameter(0), null, webRequest, null);
+
+        assertSame(first, second);
+        verify(userService, times(1)).checkExists(7);
+    }
+
+    @Test
+    void resolveArgument_whenHeaderMissing_thenMissingRequestHeaderExceptionThrow() {
+        assertThrows(MissingRequestHeaderException.class,
+                () -> resolver.resolveArgument(parameter(0), null, webRequest, null));
+        verify(userService, never()).checkExists(anyLong());
+    }
+
+    @Test
+    void resolveArgument_whenHeaderNotNumber_thenServletRequestBindingExceptionThrow() {
+        request.addHeader(UserPrincipal.HEADER, "abc");
+
+        assertThrows(ServletRequestBindingException.class,
+                () -> resolver.resolveArgument(parameter(0), null, webRequest, null));
+        verify(userService, never()).checkExists(anyLong());
+    }
+
+    @Test
+    void resolveArgument_whenUserNotFound_thenUserNotFoundExceptionThrow() {
+        request.addHeader(UserPrincipal.HEADER, "99");
+        doThrow(UserNotFoundException.class).when(userService).checkExists(99);
+
+        assertThrows(UserNotFoundException.class,
+                () -> resolver.resolveArgument(parameter(0), null, webRequest, null));
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        return new MethodParameter(
+                UserPrincipalArgumentResolverTest.class.getDeclaredMethod("handler", UserPrincipal.class, long.class),
+                index
+        );
+    }
+
+    @SuppressWarnings("unused")
+    private void handler(UserPrincipal principal, long itemId) {
+    }
+}
@@ -7,19 +7,39 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.server.bulk.BulkRow;
+import ru.practicum.server.bulk.BulkRowOutcome;
+import ru.practicum.server.bulk.BulkRowResultDto;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.exception.UserNotFoundException;
+import ru.practicum.server.user.index.UserExistenceIndex;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +48,10 @@ import static org.mockito.Mockito.when;
 class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private UserExistenceIndex userExistenceIndex;
     @InjectMocks
     private UserServiceImpl userService;
     @Captor
@@ -91,6 +115,24 @@ class UserServiceImplTest {
         assertEquals(expectedUserDto, actualUserDto);
     }
 
+    @Test
+    void get_whenCalledTwiceInSameRequest_thenUserLoadedOnce() {
+        long userId = 0;
+        User expectedUser = new User();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(expectedUser));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        try {
+            UserDto first = userService.get(userId);
+            UserDto second = userService.get(userId);
+
+            assertSame(first, second);
+            verify(userRepository, times(1)).findById(userId);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     @Test
     void get_whenUserNotFound_thenUserNotFoundExceptionThrow() {
         long userId = 0;
@@ -104,18 +146,111 @@ class UserServiceImplTest {
         assertEquals(expectedMessage, userNotFoundException.getMessage());
     }
 
+    @Test
+    void checkExists_whenIndexKnowsUser_thenNoException() {
+        when(userExistenceIndex.exists(eq(1L), any())).thenReturn(true);
+
+        userService.checkExists(1);
+
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    void checkExists_whenIndexRejectsUser_thenUserNotFoundExceptionThrow() {
+        when(userExistenceIndex.exists(eq(2L), any())).thenReturn(false);
+
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> userService.checkExists(2));
+
+        assertEquals("User with ID:2 not found", exception.getMessage());
+    }
+
+    @Test
+    void checkExists_whenIndexLoadsUserInRequest_thenGetServedWithoutQuery() {
+        long userId = 3;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(userExistenceIndex.exists(eq(userId), any()))
+                .thenAnswer(invocation -> invocation.<LongPredicate>getArgument(1).test(userId));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        try {
+            userService.checkExists(userId);
+            userService.get(userId);
+
+            verify(userRepository, times(1)).findById(userId);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     @Test
     void getAll() {
         List<User> expectedUsers = List.of(new User(), new User());
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("id"));
 
-        when(userRepository.findAll()).thenReturn(expectedUsers);
+        when(userRepository.findAllBy(pageable)).thenReturn(expectedUsers);
 
-        List<UserDto> actualUsers = userService.getAll();
+        List<UserDto> actualUsers = userService.getAll(pageable);
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllBy(pageable);
         assertEquals(UserMapper.listToUserDto(expectedUsers), actualUsers);
     }
 
+    @Test
+    void getAll_whenAfterIdGiven_thenNextPageByIdReturned() {
+        User user = new User();
+        user.setId(6);
+
+        when(userRepository.findAllByIdGreaterThan(5, PageRequest.of(0, 2, Sort.by("id"))))
+                .thenReturn(List.of(user));
+
+        List<UserDto> actualUsers = userService.getAll(5, 2);
+
+        assertEquals(List.of(UserMapper.toUserDto(user)), actualUsers);
+    }
+
+    @Test
+    void export_whenUsersStreamed_thenEachUserDetachedAfterConsumed() {
+        User first = new User();
+        first.setId(1);
+        User second = new User();
+        second.setId(2);
+        List<UserDto> exported = new ArrayList<>();
+
+        when(userRepository.streamAll()).thenReturn(Stream.of(first, second));
+
+        userService.export(exported::add);
+
+        assertEquals(UserMapper.listToUserDto(List.of(first, second)), exported);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void importAll_whenRowsInvalidOrDuplicated_thenOnlyNewUsersInserted() {
+        when(userRepository.findEmailsIn(Set.of("new@ya.ru", "old@ya.ru", "blank@ya.ru"))).thenReturn(List.of("old@ya.ru"));
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            assertEquals(1, users.size());
+            users.get(0).setId(7);
+            return null;
+        }).when(userRepository).insertAll(anyList());
+
+        List<BulkRowResultDto> results = userService.importAll(List.of(
+                new BulkRow<>(1, getUserDto("new", "new@ya.ru")),
+                new BulkRow<>(2, getUserDto("old", "old@ya.ru")),
+                new BulkRow<>(3, getUserDto("again", "new@ya.ru")),
+                new BulkRow<>(4, getUserDto(" ", "blank@ya.ru"))
+        ));
+
+        assertEquals(List.of(
+                new BulkRowResultDto(2, 0, BulkRowOutcome.DUPLICATE, "Email old@ya.ru is already used"),
+                new BulkRowResultDto(3, 0, BulkRowOutcome.DUPLICATE, "Email new@ya.ru is already used"),
+                new BulkRowResultDto(4, 0, BulkRowOutcome.INVALID, "name and email are required"),
+                new BulkRowResultDto(1, 7, BulkRowOutcome.CREATED, null)
+        ), results);
+        verify(userExistenceIndex).put(7);
+    }
+
     @Test
     void delete_whenUserFound_thenReturnedTrue() {
         long userId = 1;
@@ -140,4 +275,11 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).existsById(userId);
         assertFalse(actualAnswer);
     }
+
+    private UserDto getUserDto(String name, String email) {
+        UserDto userDto = new UserDto();
+        userDto.setName(name);
+        userDto.setEmail(email);
+        return userDto;
+    }
 }
\ No newline at end of file